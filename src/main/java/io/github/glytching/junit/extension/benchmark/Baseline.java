@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.benchmark;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.util.Preconditions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.glytching.junit.extension.util.ExtensionUtil.getConfigurationParameter;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * The statistics of the measured iterations of each {@link Benchmark} test, kept in a CSV file
+ * which is committed alongside the tests, and against which later measurements are compared so
+ * that a test which has become meaningfully slower fails.
+ *
+ * <p>The file is {@value #DEFAULT_FILE} unless set with the {@value #FILE_KEY} configuration
+ * parameter or system property. Each line holds the iteration count, mean, standard deviation,
+ * median and 99th percentile, in nanoseconds, followed by the test, which may itself hold commas.
+ * Lines starting with {@code #} are comments. Tests without a line are not compared.
+ *
+ * <p>A test regresses when its mean exceeds the baseline mean by more than the tolerance, {@value
+ * #DEFAULT_TOLERANCE} unless set with {@value #TOLERANCE_KEY}, with a significance, by Welch's
+ * t-test across the iterations of both, below {@value #DEFAULT_SIGNIFICANCE} unless set with
+ * {@value #SIGNIFICANCE_KEY}. A single slow iteration does not fail a test, while a consistent
+ * slowdown beyond the tolerance does.
+ *
+ * <p>With {@value #UPDATE_KEY} set to {@code true} nothing is compared, instead the line of each
+ * test measured is replaced with its new statistics. The file is locked while it is rewritten, as
+ * forked JVMs may update it at the same time.
+ */
+final class Baseline {
+
+  static final String FILE_KEY = "junit.extensions.benchmark.baseline";
+
+  static final String DEFAULT_FILE = "src/test/resources/benchmark-baseline.csv";
+
+  static final String UPDATE_KEY = "junit.extensions.benchmark.baseline.update";
+
+  static final String TOLERANCE_KEY = "junit.extensions.benchmark.baseline.tolerance";
+
+  static final double DEFAULT_TOLERANCE = 0.1;
+
+  static final String SIGNIFICANCE_KEY = "junit.extensions.benchmark.baseline.significance";
+
+  static final double DEFAULT_SIGNIFICANCE = 0.01;
+
+  private static final String HEADER = "# count,mean,deviation,p50,p99,test (nanoseconds)";
+
+  private static final int FIELDS = 6;
+
+  private Baseline() {}
+
+  /**
+   * Compares the measured iterations of a test with its baseline, or replaces its baseline with
+   * them when updating.
+   *
+   * @param extensionContext the <em>context</em> of the test, from which the baseline is
+   *     configured
+   * @param test identifies the test within the baseline
+   * @param histogram the measured iterations
+   * @param timeUnit the unit in which times are reported
+   * @throws IOException if the baseline cannot be read or written
+   * @throws org.opentest4j.AssertionFailedError if the test has regressed
+   */
+  static void verify(
+      ExtensionContext extensionContext,
+      String test,
+      LatencyHistogram histogram,
+      TimeUnit timeUnit)
+      throws IOException {
+    Path file =
+        Paths.get(getConfigurationParameter(extensionContext, FILE_KEY).orElse(DEFAULT_FILE));
+    Statistics measured = Statistics.of(histogram);
+    if (getConfigurationParameter(extensionContext, UPDATE_KEY)
+        .map(Boolean::parseBoolean)
+        .orElse(false)) {
+      update(file, test, measured);
+      return;
+    }
+    Statistics baseline = Files.isRegularFile(file) ? read(file).get(test) : null;
+    if (baseline == null) {
+      return;
+    }
+    double tolerance = parameter(extensionContext, TOLERANCE_KEY, DEFAULT_TOLERANCE);
+    double significance = parameter(extensionContext, SIGNIFICANCE_KEY, DEFAULT_SIGNIFICANCE);
+    double pValue =
+        WelchTest.pValue(
+            measured.mean,
+            measured.deviation,
+            measured.count,
+            baseline.mean,
+            baseline.deviation,
+            baseline.count,
+            1 + tolerance);
+    if (pValue < significance) {
+      Assertions.fail(
+          String.format(
+              Locale.ROOT,
+              "%s has regressed: a mean of %d %s over %d iterations against a baseline of %d %s"
+                  + " over %d iterations, %+.1f%% where %.1f%% is tolerated (p = %.2g < %s)."
+                  + " Run with -D%s=true to accept the new times as the baseline in %s",
+              test,
+              timeUnit.convert(measured.mean, NANOSECONDS),
+              timeUnit.name(),
+              measured.count,
+              timeUnit.convert(baseline.mean, NANOSECONDS),
+              timeUnit.name(),
+              baseline.count,
+              100.0 * (measured.mean - baseline.mean) / baseline.mean,
+              100 * tolerance,
+              pValue,
+              significance,
+              UPDATE_KEY,
+              file));
+    }
+  }
+
+  private static double parameter(
+      ExtensionContext extensionContext, String key, double defaultValue) {
+    return getConfigurationParameter(extensionContext, key)
+        .map(Double::parseDouble)
+        .orElse(defaultValue);
+  }
+
+  /** @return the statistics of each test by test, in the order of the file */
+  static Map<String, Statistics> read(Path file) throws IOException {
+    return read(Files.readAllLines(file, UTF_8));
+  }
+
+  private static Map<String, Statistics> read(List<String> lines) {
+    Map<String, Statistics> statistics = new LinkedHashMap<>();
+    for (String line : lines) {
+      if (line.trim().isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      String[] fields = line.split(",", FIELDS);
+      Preconditions.condition(
+          fields.length == FIELDS, () -> "Not a line of a benchmark baseline: " + line);
+      statistics.put(
+          fields[5],
+          new Statistics(
+              Long.parseLong(fields[0].trim()),
+              Long.parseLong(fields[1].trim()),
+              Double.parseDouble(fields[2].trim()),
+              Long.parseLong(fields[3].trim()),
+              Long.parseLong(fields[4].trim())));
+    }
+    return statistics;
+  }
+
+  /** Replaces the line of a test, keeping the lines of every other test in place. */
+  private static void update(Path file, String test, Statistics measured) throws IOException {
+    synchronized (Baseline.class) {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      try (FileChannel channel =
+              FileChannel.open(
+                  file,
+                  StandardOpenOption.CREATE,
+                  StandardOpenOption.READ,
+                  StandardOpenOption.WRITE);
+          FileLock ignored = channel.lock()) {
+        ByteBuffer content = ByteBuffer.allocate((int) channel.size());
+        while (content.hasRemaining() && channel.read(content, content.position()) >= 0) {
+          // reads until the buffer is full
+        }
+        String text = new String(content.array(), 0, content.position(), UTF_8);
+        Map<String, Statistics> statistics = read(Arrays.asList(text.split("\\r?\\n")));
+        statistics.put(test, measured);
+        StringBuilder lines = new StringBuilder(HEADER).append(System.lineSeparator());
+        statistics.forEach(
+            (name, it) -> lines.append(it.toLine(name)).append(System.lineSeparator()));
+
+        ByteBuffer updated = ByteBuffer.wrap(lines.toString().getBytes(UTF_8));
+        channel.truncate(0);
+        while (updated.hasRemaining()) {
+          channel.write(updated, updated.position());
+        }
+      }
+    }
+  }
+
+  /** The statistics of the measured iterations of a test, in nanoseconds. */
+  static final class Statistics {
+
+    final long count;
+
+    final long mean;
+
+    final double deviation;
+
+    final long p50;
+
+    final long p99;
+
+    Statistics(long count, long mean, double deviation, long p50, long p99) {
+      this.count = count;
+      this.mean = mean;
+      this.deviation = deviation;
+      this.p50 = p50;
+      this.p99 = p99;
+    }
+
+    static Statistics of(LatencyHistogram histogram) {
+      return new Statistics(
+          histogram.getTotalCount(),
+          histogram.getMean(),
+          histogram.getStdDeviation(),
+          histogram.getValueAtPercentile(50),
+          histogram.getValueAtPercentile(99));
+    }
+
+    String toLine(String test) {
+      return String.format(
+          Locale.ROOT, "%d,%d,%.1f,%d,%d,%s", count, mean, deviation, p50, p99, test);
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.benchmark;
+
+import java.lang.annotation.*;
+
+/**
+ * Declares that a test method is benchmarked over many iterations rather than timed once. The
+ * method is invoked {@link #warmupIterations()} times, untimed, so that its code is loaded and
+ * compiled, and then {@link #measurementIterations()} times, each of which is timed. Only the
+ * timed iterations are reported, see {@link BenchmarkExtension}.
+ *
+ * <p>All iterations run within a single invocation of the test, so {@code @BeforeEach} and {@code
+ * @AfterEach} methods run once around them and the test body must be repeatable.
+ *
+ * <p>Usage example:
+ *
+ * <pre>
+ * &#064;ExtendWith(BenchmarkExtension.class)
+ * public class MyTest {
+ *
+ *  &#064;Test
+ *  &#064;Benchmark(warmupIterations = 10, measurementIterations = 100)
+ *  public void aTest() {
+ *      // ...
+ *  }
+ * }
+ * </pre>
+ *
+ * @since 2.8.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+@Documented
+public @interface Benchmark {
+
+  /**
+   * The iterations run before measuring, allowing the JIT compiler to reach a steady state.
+   *
+   * @return the number of untimed iterations, may be zero
+   */
+  int warmupIterations() default 5;
+
+  /**
+   * The iterations which are timed and reported.
+   *
+   * @return the number of timed iterations, at least one
+   */
+  int measurementIterations() default 10;
+}
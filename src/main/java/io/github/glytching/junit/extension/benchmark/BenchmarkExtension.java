@@ -19,11 +19,31 @@ package io.github.glytching.junit.extension.benchmark;
 import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
 import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.ReflectionSupport;
+import org.junit.platform.commons.util.Preconditions;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
+import static io.github.glytching.junit.extension.util.ExtensionUtil.getConfigurationParameter;
 import static io.github.glytching.junit.extension.util.ExtensionUtil.getStore;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * The benchmark extension publishes elapsed time to the execution listener. By default, this
@@ -40,6 +60,44 @@ import static io.github.glytching.junit.extension.util.ExtensionUtil.getStore;
  * <p>By default, elapsed times are reported in {@link TimeUnit#MILLISECONDS} but you can use {@link
  * org.junit.jupiter.api.extension.RegisterExtension} to choose a different {@link TimeUnit}.
  *
+ * <p>A single run mostly measures class loading and interpretation. A test method annotated with
+ * {@link Benchmark} is instead run repeatedly, first to warm up and then to measure. The measured
+ * iterations are recorded in a {@link LatencyHistogram}, and its minimum, mean, 50th, 90th, 99th
+ * and 99.9th percentile and maximum are published in place of the elapsed time, like so:
+ *
+ * <pre>
+ * timestamp = 2018-08-30T16:28:47.701, Min time in MICROSECONDS for canBenchmark = 41, Mean time in
+ * MICROSECONDS for canBenchmark = 45, P50 time in MICROSECONDS for canBenchmark = 43, ...
+ * </pre>
+ *
+ * <p>The invocations of a parameterized or repeated test method are recorded in a histogram of the
+ * test method as well, all of their measured iterations for a {@link Benchmark} method, which is
+ * published on the test method once its invocations have run. With the {@value
+ * #HISTOGRAM_DIRECTORY_KEY} configuration parameter or system property set to a directory, such as
+ * {@code target/histograms}, the histogram of each test method is also written to a file named
+ * after the test class and method, from where the histograms of several forks can be read and
+ * merged.
+ *
+ * <p>Each report also carries the bytes allocated and the CPU time used by the test thread, the
+ * wall time, and the count and time of the garbage collections run meanwhile, over the whole test
+ * or over the measured iterations of a {@link Benchmark} test, for which the bytes allocated per
+ * iteration are also reported, see {@link ResourceUsage}.
+ *
+ * <p>A test method annotated with {@link ConcurrentBenchmark} is instead run from several threads
+ * at once, for each of a list of thread counts, and its throughput and latency percentiles are
+ * published for each thread count, followed by a scalability curve, the speedup of each thread
+ * count over the first, like so:
+ *
+ * <pre>
+ * timestamp = 2018-08-30T16:28:47.701, Speedup for canBenchmark with 1 threads = 1.00, Speedup
+ * for canBenchmark with 2 threads = 1.96, Speedup for canBenchmark with 4 threads = 3.71
+ * </pre>
+ *
+ * <p>The measured iterations of a {@link Benchmark} test are compared with a baseline committed
+ * alongside the tests, the test failing if its times have grown beyond a tolerance with
+ * statistical significance. With {@code junit.extensions.benchmark.baseline.update=true} the
+ * baseline is written instead, see {@link Baseline}.
+ *
  * <p>Usage example:
  *
  * <pre>
@@ -69,10 +127,22 @@ import static io.github.glytching.junit.extension.util.ExtensionUtil.getStore;
  *
  * @since 2.4.0
  */
-public class BenchmarkExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+public class BenchmarkExtension
+    implements BeforeTestExecutionCallback, AfterTestExecutionCallback, InvocationInterceptor {
 
   public static final String REPORT_EVENT_FORMAT = "Elapsed time in %s for %s";
 
+  public static final String REPORT_STATISTIC_FORMAT = "%s time in %s for %s";
+
+  public static final String REPORT_THROUGHPUT_FORMAT =
+      "Throughput in ops/s for %s with %d threads";
+
+  public static final String REPORT_SPEEDUP_FORMAT = "Speedup for %s with %d threads";
+
+  public static final String HISTOGRAM_DIRECTORY_KEY = "junit.extensions.benchmark.histograms";
+
+  public static final String HISTOGRAM_FILE_EXTENSION = ".histogram";
+
   private final TimeUnit timeUnit;
 
   /** Constructs an instance of this class which will report using the default time unit. */
@@ -100,9 +170,15 @@ public class BenchmarkExtension implements BeforeTestExecutionCallback, AfterTes
    */
   @Override
   public void beforeTestExecution(ExtensionContext extensionContext) throws Exception {
+    Method testMethod = extensionContext.getRequiredTestMethod();
+    if (benchmarkOf(testMethod).isPresent() || concurrentBenchmarkOf(testMethod).isPresent()) {
+      // reported by interceptTestMethod instead
+      return;
+    }
     // put a StopWatch in the context for the current test invocation
-    getStore(extensionContext, this.getClass())
-        .put(extensionContext.getRequiredTestMethod(), new StopWatch());
+    ExtensionContext.Store store = getStore(extensionContext, this.getClass());
+    store.put(ResourceUsage.class, ResourceUsage.now());
+    store.put(extensionContext.getRequiredTestMethod(), new StopWatch());
   }
 
   /**
@@ -118,13 +194,312 @@ public class BenchmarkExtension implements BeforeTestExecutionCallback, AfterTes
     Method testMethod = extensionContext.getRequiredTestMethod();
 
     // get the StopWatch from the context for the current test invocation and report on it
-    long duration =
-        getStore(extensionContext, this.getClass())
-            .get(testMethod, StopWatch.class)
-            .duration(timeUnit);
+    ExtensionContext.Store store = getStore(extensionContext, this.getClass());
+    StopWatch stopWatch = store.get(testMethod, StopWatch.class);
+    if (stopWatch == null) {
+      return;
+    }
+    long duration = stopWatch.duration(NANOSECONDS);
+    ResourceUsage usage =
+        ResourceUsage.now().since(store.get(ResourceUsage.class, ResourceUsage.class));
 
-    extensionContext.publishReportEntry(
+    Map<String, String> report = new LinkedHashMap<>();
+    report.put(
         String.format(REPORT_EVENT_FORMAT, timeUnit.name(), testMethod.getName()),
-        Long.toString(duration));
+        convert(duration));
+    usage.report(report, testMethod.getName(), timeUnit);
+    extensionContext.publishReportEntry(report);
+
+    invocationsHistogramOf(extensionContext).ifPresent(histogram -> histogram.record(duration));
+  }
+
+  /**
+   * Runs a test method annotated with {@link Benchmark} through its warmup and measurement
+   * iterations, publishing statistics of the measured iterations. Other test methods run once, as
+   * usual.
+   *
+   * @param invocation the invocation of the test method, skipped for a benchmark so that every
+   *     iteration is invoked, and timed, alike
+   * @param invocationContext the test method, its target and arguments, used to invoke every
+   *     iteration of a benchmark
+   * @param extensionContext the <em>context</em> in which the current test is being executed
+   * @throws Throwable the failure of any iteration, which ends the benchmark
+   */
+  @Override
+  public void interceptTestMethod(
+      Invocation<Void> invocation,
+      ReflectiveInvocationContext<Method> invocationContext,
+      ExtensionContext extensionContext)
+      throws Throwable {
+    intercept(invocation, invocationContext, extensionContext);
+  }
+
+  /** As {@link #interceptTestMethod}, for each invocation of a parameterized or repeated test. */
+  @Override
+  public void interceptTestTemplateMethod(
+      Invocation<Void> invocation,
+      ReflectiveInvocationContext<Method> invocationContext,
+      ExtensionContext extensionContext)
+      throws Throwable {
+    intercept(invocation, invocationContext, extensionContext);
+  }
+
+  private void intercept(
+      Invocation<Void> invocation,
+      ReflectiveInvocationContext<Method> invocationContext,
+      ExtensionContext extensionContext)
+      throws Throwable {
+    Method testMethod = invocationContext.getExecutable();
+    Optional<Benchmark> benchmark = benchmarkOf(testMethod);
+    Optional<ConcurrentBenchmark> concurrentBenchmark = concurrentBenchmarkOf(testMethod);
+    Preconditions.condition(
+        !benchmark.isPresent() || !concurrentBenchmark.isPresent(),
+        () ->
+            "A test method cannot be both a @Benchmark and a @ConcurrentBenchmark: "
+                + testMethod);
+    if (concurrentBenchmark.isPresent()) {
+      interceptConcurrently(
+          invocation, invocationContext, extensionContext, concurrentBenchmark.get());
+      return;
+    }
+    if (!benchmark.isPresent()) {
+      invocation.proceed();
+      return;
+    }
+    int warmupIterations = benchmark.get().warmupIterations();
+    int measurementIterations = benchmark.get().measurementIterations();
+    Preconditions.condition(
+        warmupIterations >= 0 && measurementIterations > 0,
+        () -> "A @Benchmark needs at least one measurement iteration: " + testMethod);
+
+    // every iteration is invoked by the benchmark, the same way, as the concurrent benchmark does
+    invocation.skip();
+    Method method = invocationContext.getExecutable();
+    Object target = invocationContext.getTarget().orElse(null);
+    Object[] arguments = invocationContext.getArguments().toArray();
+    for (int i = 0; i < warmupIterations; i++) {
+      ReflectionSupport.invokeMethod(method, target, arguments);
+    }
+    LatencyHistogram histogram = new LatencyHistogram();
+    ResourceUsage measured = ResourceUsage.now();
+    for (int i = 0; i < measurementIterations; i++) {
+      long start = nanoTime();
+      ReflectionSupport.invokeMethod(method, target, arguments);
+      histogram.record(nanoTime() - start);
+    }
+    ResourceUsage usage = ResourceUsage.now().since(measured);
+
+    Map<String, String> report = report(testMethod, histogram);
+    usage.report(report, testMethod.getName(), timeUnit);
+    if (usage.getAllocatedBytes() >= 0) {
+      report.put(
+          String.format("Allocated bytes per iteration for %s", testMethod.getName()),
+          Long.toString(usage.getAllocatedBytes() / measurementIterations));
+    }
+    extensionContext.publishReportEntry(report);
+    Optional<InvocationsHistogram> invocationsHistogram =
+        invocationsHistogramOf(extensionContext);
+    if (invocationsHistogram.isPresent()) {
+      invocationsHistogram.get().add(histogram);
+    } else {
+      write(extensionContext, histogram);
+    }
+    Baseline.verify(extensionContext, baselineNameOf(extensionContext), histogram, timeUnit);
+  }
+
+  private void interceptConcurrently(
+      Invocation<Void> invocation,
+      ReflectiveInvocationContext<Method> invocationContext,
+      ExtensionContext extensionContext,
+      ConcurrentBenchmark benchmark)
+      throws Throwable {
+    Method testMethod = invocationContext.getExecutable();
+    Preconditions.condition(
+        benchmark.threads().length > 0
+            && Arrays.stream(benchmark.threads()).allMatch(threads -> threads > 0)
+            && benchmark.warmupIterations() >= 0
+            && (benchmark.operations() > 0 || benchmark.durationMillis() > 0),
+        () ->
+            "A @ConcurrentBenchmark needs at least one thread count, of at least one thread, and"
+                + " at least one operation or a duration: "
+                + testMethod);
+
+    // every invocation is made by the benchmark, from as many threads as asked for
+    invocation.skip();
+    Object target = invocationContext.getTarget().orElse(null);
+    Object[] arguments = invocationContext.getArguments().toArray();
+    for (int i = 0; i < benchmark.warmupIterations(); i++) {
+      ReflectionSupport.invokeMethod(testMethod, target, arguments);
+    }
+    Map<String, String> curve = new LinkedHashMap<>();
+    long baseThroughput = 0;
+    for (int threads : benchmark.threads()) {
+      ConcurrentRun run = ConcurrentRun.run(invocationContext, threads, benchmark);
+      extensionContext.publishReportEntry(report(testMethod, threads, run));
+      if (curve.isEmpty()) {
+        baseThroughput = run.getThroughput();
+      }
+      curve.put(
+          String.format(REPORT_SPEEDUP_FORMAT, testMethod.getName(), threads),
+          String.format(
+              Locale.ROOT,
+              "%.2f",
+              baseThroughput == 0 ? 0d : (double) run.getThroughput() / baseThroughput));
+    }
+    extensionContext.publishReportEntry(curve);
+  }
+
+  /**
+   * @return the test class and method, followed by the display name of the invocation for a
+   *     parameterized or repeated test
+   */
+  /**
+   * @return the test within the baseline: its class and method, followed for an invocation of a
+   *     parameterized or repeated test by its number, which unlike its display name stays the same
+   *     whatever its arguments
+   */
+  private static String baselineNameOf(ExtensionContext extensionContext) {
+    String name =
+        extensionContext.getRequiredTestClass().getName()
+            + "#"
+            + extensionContext.getRequiredTestMethod().getName();
+    boolean invocation =
+        extensionContext
+            .getParent()
+            .filter(parent -> parent.getTestMethod().isPresent())
+            .isPresent();
+    if (!invocation) {
+      return name;
+    }
+    // the last segment of the unique id, such as [test-template-invocation:#2]
+    String uniqueId = extensionContext.getUniqueId();
+    String segment = uniqueId.substring(uniqueId.lastIndexOf("/[") + 2, uniqueId.length() - 1);
+    return name + " " + segment.substring(segment.indexOf(':') + 1);
+  }
+
+  private Map<String, String> report(Method testMethod, LatencyHistogram histogram) {
+    Map<String, String> report = new LinkedHashMap<>();
+    report.put(statistic("Min", testMethod), convert(histogram.getMin()));
+    report.put(statistic("Mean", testMethod), convert(histogram.getMean()));
+    report.put(statistic("P50", testMethod), convert(histogram.getValueAtPercentile(50)));
+    report.put(statistic("P90", testMethod), convert(histogram.getValueAtPercentile(90)));
+    report.put(statistic("P99", testMethod), convert(histogram.getValueAtPercentile(99)));
+    report.put(statistic("P99.9", testMethod), convert(histogram.getValueAtPercentile(99.9)));
+    report.put(statistic("Max", testMethod), convert(histogram.getMax()));
+    return report;
+  }
+
+  private Map<String, String> report(Method testMethod, int threads, ConcurrentRun run) {
+    String name = testMethod.getName();
+    Map<String, String> report = new LinkedHashMap<>();
+    report.put(
+        String.format(REPORT_THROUGHPUT_FORMAT, name, threads),
+        Long.toString(run.getThroughput()));
+    LatencyHistogram all = run.getHistogram();
+    String allThreads = String.format("%s with %d threads", name, threads);
+    report.put(statistic("P50", allThreads), convert(all.getValueAtPercentile(50)));
+    report.put(statistic("P99", allThreads), convert(all.getValueAtPercentile(99)));
+    report.put(statistic("Max", allThreads), convert(all.getMax()));
+    List<LatencyHistogram> histograms = run.getHistograms();
+    for (int i = 0; i < histograms.size(); i++) {
+      LatencyHistogram histogram = histograms.get(i);
+      String thread = String.format("%s on thread %d of %d", name, i + 1, threads);
+      report.put(statistic("P50", thread), convert(histogram.getValueAtPercentile(50)));
+      report.put(statistic("P99", thread), convert(histogram.getValueAtPercentile(99)));
+      report.put(statistic("Max", thread), convert(histogram.getMax()));
+    }
+    return report;
+  }
+
+  /**
+   * Writes the histogram of a test method to the directory named by the {@value
+   * #HISTOGRAM_DIRECTORY_KEY} configuration parameter, if set, see {@link
+   * LatencyHistogram#write(java.io.OutputStream)}.
+   */
+  private static void write(ExtensionContext extensionContext, LatencyHistogram histogram)
+      throws IOException {
+    Optional<String> directory =
+        getConfigurationParameter(extensionContext, HISTOGRAM_DIRECTORY_KEY);
+    if (!directory.isPresent()) {
+      return;
+    }
+    Path file =
+        Paths.get(directory.get())
+            .resolve(
+                extensionContext.getRequiredTestClass().getName()
+                    + "#"
+                    + extensionContext.getRequiredTestMethod().getName()
+                    + HISTOGRAM_FILE_EXTENSION);
+    Files.createDirectories(file.getParent());
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+      histogram.write(out);
+    }
+  }
+
+  /**
+   * @return the histogram of every invocation of the parameterized or repeated test method which
+   *     the given context is an invocation of, if it is one
+   */
+  private Optional<InvocationsHistogram> invocationsHistogramOf(
+      ExtensionContext extensionContext) {
+    return extensionContext
+        .getParent()
+        .filter(parent -> parent.getTestMethod().isPresent())
+        .map(
+            container ->
+                getStore(container, this.getClass())
+                    .getOrComputeIfAbsent(
+                        InvocationsHistogram.class,
+                        key -> new InvocationsHistogram(container),
+                        InvocationsHistogram.class));
+  }
+
+  private String statistic(String name, Method testMethod) {
+    return statistic(name, testMethod.getName());
+  }
+
+  private String statistic(String name, String testName) {
+    return String.format(REPORT_STATISTIC_FORMAT, name, timeUnit.name(), testName);
+  }
+
+  private String convert(long nanos) {
+    return Long.toString(timeUnit.convert(nanos, NANOSECONDS));
+  }
+
+  private static Optional<Benchmark> benchmarkOf(Method testMethod) {
+    return AnnotationSupport.findAnnotation(testMethod, Benchmark.class);
+  }
+
+  private static Optional<ConcurrentBenchmark> concurrentBenchmarkOf(Method testMethod) {
+    return AnnotationSupport.findAnnotation(testMethod, ConcurrentBenchmark.class);
+  }
+
+  /**
+   * The latencies of every invocation of a parameterized or repeated test method, reported on the
+   * test method once all of its invocations have run.
+   */
+  private final class InvocationsHistogram implements ExtensionContext.Store.CloseableResource {
+
+    private final ExtensionContext container;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private InvocationsHistogram(ExtensionContext container) {
+      this.container = container;
+    }
+
+    synchronized void record(long nanos) {
+      histogram.record(nanos);
+    }
+
+    synchronized void add(LatencyHistogram other) {
+      histogram.add(other);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+      container.publishReportEntry(report(container.getRequiredTestMethod(), histogram));
+      write(container, histogram);
+    }
   }
 }
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.benchmark;
+
+import java.lang.annotation.*;
+
+/**
+ * Declares that a test method is benchmarked under concurrent load: its body is invoked from
+ * several threads at once, which are released together by a barrier, to show whether the code
+ * under test scales across cores. The method is first invoked {@link #warmupIterations()} times on
+ * the test thread, untimed, and then, for each of the {@link #threads()} counts in turn, from that
+ * many threads, each of which invokes it {@link #operations()} times or, if a {@link
+ * #durationMillis()} is given, for that long.
+ *
+ * <p>For each thread count the throughput in operations per second, and the percentiles of each
+ * thread's latencies and of all of them, are published, followed by the speedup of each thread
+ * count over the first, see {@link BenchmarkExtension}. A failure of any invocation, such as a
+ * failed assertion, stops every thread and fails the test, with the failures of other threads
+ * added as suppressed exceptions. A run which outlasts its {@link #timeoutMillis()} has its threads
+ * interrupted and fails the test.
+ *
+ * <p>All invocations run within a single invocation of the test, so {@code @BeforeEach} and {@code
+ * @AfterEach} methods run once around them and the test body must be repeatable and thread safe.
+ *
+ * <p>Usage example:
+ *
+ * <pre>
+ * &#064;ExtendWith(BenchmarkExtension.class)
+ * public class MyTest {
+ *
+ *  &#064;Test
+ *  &#064;ConcurrentBenchmark(threads = {1, 2, 4, 8}, operations = 10000)
+ *  public void aTest() {
+ *      // ...
+ *  }
+ * }
+ * </pre>
+ *
+ * @since 2.8.0
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+@Documented
+public @interface ConcurrentBenchmark {
+
+  /**
+   * The thread counts to run the method with, one after another, in the order given. More than
+   * one count gives a scalability curve.
+   *
+   * @return the thread counts, each at least one
+   */
+  int[] threads() default {1, 2, 4};
+
+  /**
+   * The invocations run on the test thread before measuring, allowing the JIT compiler to reach a
+   * steady state.
+   *
+   * @return the number of untimed invocations, may be zero
+   */
+  int warmupIterations() default 5;
+
+  /**
+   * The invocations made by each thread, ignored if a {@link #durationMillis()} is given.
+   *
+   * @return the number of timed invocations per thread, at least one
+   */
+  int operations() default 100;
+
+  /**
+   * How long each thread keeps invoking the method, in place of a fixed number of {@link
+   * #operations()}.
+   *
+   * @return the duration of each run in milliseconds, or zero to run a fixed number of operations
+   */
+  long durationMillis() default 0;
+
+  /**
+   * How long a run with one of the {@link #threads()} counts may take before its threads are
+   * interrupted and the test fails, e.g. because the method deadlocks under concurrent load.
+   *
+   * @return the timeout of each run in milliseconds, or zero for the {@link #durationMillis()} plus
+   *     a grace period of ten seconds, and no timeout for a fixed number of {@link #operations()}
+   */
+  long timeoutMillis() default 0;
+
+  /**
+   * Whether each of the {@link #threads()} is a virtual thread rather than a platform thread, to
+   * benchmark code which is meant to serve many concurrent requests on virtual threads. Virtual
+   * threads are provided by Java 21 onwards; on earlier runtimes platform threads are used anyway.
+   *
+   * @return true to run on virtual threads where the runtime provides them
+   */
+  boolean virtualThreads() default false;
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.benchmark;
+
+import io.github.glytching.junit.extension.util.ThreadUtils;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+import org.junit.platform.commons.support.ReflectionSupport;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.System.nanoTime;
+
+/**
+ * One run of a {@link ConcurrentBenchmark} test method with a given number of threads. The threads
+ * wait at a barrier and start invoking the method together; the run lasts from their release until
+ * the last operation of any of them has finished.
+ */
+final class ConcurrentRun {
+
+  /** how long a run for a duration may overrun it, see {@link ConcurrentBenchmark#timeoutMillis} */
+  static final long GRACE_MILLIS = 10_000;
+
+  private final List<LatencyHistogram> histograms;
+
+  private final long elapsedNanos;
+
+  private ConcurrentRun(List<LatencyHistogram> histograms, long elapsedNanos) {
+    this.histograms = histograms;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Invokes the test method from {@code threads} threads at once.
+   *
+   * @return the latencies of each thread
+   * @throws Throwable the first failure of any invocation, with the failures of other threads
+   *     suppressed by it, or a {@link TimeoutException} if the run outlasts its timeout
+   */
+  static ConcurrentRun run(
+      ReflectiveInvocationContext<Method> invocationContext,
+      int threads,
+      ConcurrentBenchmark benchmark)
+      throws Throwable {
+    AtomicLong start = new AtomicLong();
+    AtomicBoolean stop = new AtomicBoolean();
+    CyclicBarrier barrier = new CyclicBarrier(threads, () -> start.set(nanoTime()));
+    long timeoutMillis = timeoutMillisOf(benchmark);
+    long timeout = nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    ExecutorService executor = newExecutor(threads, benchmark);
+    try {
+      List<Future<Worker>> futures = new ArrayList<>(threads);
+      for (int i = 0; i < threads; i++) {
+        futures.add(
+            executor.submit(new Worker(invocationContext, benchmark, barrier, start, stop)));
+      }
+      List<LatencyHistogram> histograms = new ArrayList<>(threads);
+      long elapsedNanos = 0;
+      Throwable failure = null;
+      for (Future<Worker> future : futures) {
+        try {
+          Worker worker =
+              timeoutMillis > 0
+                  ? future.get(timeout - nanoTime(), TimeUnit.NANOSECONDS)
+                  : future.get();
+          histograms.add(worker.histogram);
+          // a thread which completed no operation has no end
+          if (worker.histogram.getTotalCount() > 0) {
+            elapsedNanos = Math.max(elapsedNanos, worker.end - start.get());
+          }
+        } catch (TimeoutException e) {
+          stop.set(true);
+          futures.forEach(it -> it.cancel(true));
+          TimeoutException timedOut =
+              new TimeoutException(
+                  String.format(
+                      "%s timed out after %d ms with %d threads",
+                      invocationContext.getExecutable().getName(), timeoutMillis, threads));
+          if (failure != null) {
+            timedOut.addSuppressed(failure);
+          }
+          throw timedOut;
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = e.getCause();
+          } else {
+            failure.addSuppressed(e.getCause());
+          }
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+      return new ConcurrentRun(histograms, elapsedNanos);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /** @return the timeout of a run in milliseconds, zero for none */
+  private static long timeoutMillisOf(ConcurrentBenchmark benchmark) {
+    if (benchmark.timeoutMillis() > 0) {
+      return benchmark.timeoutMillis();
+    }
+    return benchmark.durationMillis() > 0 ? benchmark.durationMillis() + GRACE_MILLIS : 0;
+  }
+
+  /** @return the latencies of each thread, in the order the threads were started */
+  List<LatencyHistogram> getHistograms() {
+    return histograms;
+  }
+
+  /** @return the latencies of every thread */
+  LatencyHistogram getHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histograms.forEach(histogram::add);
+    return histogram;
+  }
+
+  /** @return the operations completed per second by all threads together */
+  long getThroughput() {
+    return elapsedNanos <= 0
+        ? 0
+        : getHistogram().getTotalCount() * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+  }
+
+  /** Runs each thread on a virtual thread if asked for and provided by the runtime. */
+  private static ExecutorService newExecutor(int threads, ConcurrentBenchmark benchmark) {
+    return (benchmark.virtualThreads()
+            ? ThreadUtils.newVirtualThreadPerTaskExecutor()
+            : Optional.<ExecutorService>empty())
+        .orElseGet(() -> ThreadUtils.newDaemonThreadPool(threads, "concurrent-benchmark"));
+  }
+
+  /** Invokes the test method on one thread until its operations or the duration are done. */
+  private static final class Worker implements Callable<Worker> {
+
+    private final ReflectiveInvocationContext<Method> invocationContext;
+
+    private final ConcurrentBenchmark benchmark;
+
+    private final CyclicBarrier barrier;
+
+    private final AtomicLong start;
+
+    private final AtomicBoolean stop;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private long end;
+
+    Worker(
+        ReflectiveInvocationContext<Method> invocationContext,
+        ConcurrentBenchmark benchmark,
+        CyclicBarrier barrier,
+        AtomicLong start,
+        AtomicBoolean stop) {
+      this.invocationContext = invocationContext;
+      this.benchmark = benchmark;
+      this.barrier = barrier;
+      this.start = start;
+      this.stop = stop;
+    }
+
+    @Override
+    public Worker call() throws Exception {
+      Method method = invocationContext.getExecutable();
+      Object target = invocationContext.getTarget().orElse(null);
+      Object[] arguments = invocationContext.getArguments().toArray();
+      barrier.await();
+      long deadline = start.get() + TimeUnit.MILLISECONDS.toNanos(benchmark.durationMillis());
+      try {
+        for (int i = 0; !stop.get() && !done(i, deadline); i++) {
+          long begin = nanoTime();
+          ReflectionSupport.invokeMethod(method, target, arguments);
+          end = nanoTime();
+          histogram.record(end - begin);
+        }
+      } catch (Throwable t) {
+        stop.set(true);
+        throw t;
+      }
+      return this;
+    }
+
+    private boolean done(int operations, long deadline) {
+      return benchmark.durationMillis() > 0
+          ? nanoTime() - deadline >= 0
+          : operations >= benchmark.operations();
+    }
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.benchmark;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A histogram of latencies in nanoseconds, in the style of HdrHistogram. Values are counted in
+ * buckets of exponentially growing width, each split into {@value #SUB_BUCKET_COUNT} linear sub
+ * buckets, so any value up to {@link Long#MAX_VALUE} is held to within 1/{@value #HALF_COUNT} of
+ * itself, values below {@value #SUB_BUCKET_COUNT} exactly. The counts take a fixed 30KB whatever
+ * the number or spread of the values, and recording a value allocates nothing.
+ *
+ * <p>Histograms can be written to a stream and read back, and added to one another, so that the
+ * latencies recorded by several JVMs, such as the forks of a build, can be merged before their
+ * percentiles are taken.
+ *
+ * <p>A histogram is not thread safe.
+ *
+ * @since 2.8.0
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 7;
+
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  private static final int HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+
+  /**
+   * Values below the sub bucket count are their own index. Any other value is indexed by its
+   * shift, from 1 for values of 8 bits to 56 for values of 63 bits, times the half count, plus its
+   * top {@value #SUB_BUCKET_BITS} bits, which are at least the half count.
+   */
+  private static final int LENGTH =
+      (Long.SIZE - 1 - SUB_BUCKET_BITS) * HALF_COUNT + SUB_BUCKET_COUNT;
+
+  private static final int MAGIC = 0x4c48_4731; // LHG1
+
+  private final long[] counts = new long[LENGTH];
+
+  private long totalCount;
+
+  private double sum;
+
+  private double sumOfSquares;
+
+  private long min = Long.MAX_VALUE;
+
+  private long max;
+
+  /**
+   * Counts a latency.
+   *
+   * @param nanos the latency, a negative one is counted as zero
+   */
+  public void record(long nanos) {
+    long value = Math.max(nanos, 0);
+    counts[indexOf(value)]++;
+    totalCount++;
+    sum += value;
+    sumOfSquares += (double) value * value;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+  }
+
+  /**
+   * Counts every latency counted by {@code other} as well.
+   *
+   * @param other the histogram to merge into this one
+   */
+  public void add(LatencyHistogram other) {
+    for (int i = 0; i < LENGTH; i++) {
+      counts[i] += other.counts[i];
+    }
+    totalCount += other.totalCount;
+    sum += other.sum;
+    sumOfSquares += other.sumOfSquares;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+  }
+
+  /** @return the number of latencies counted */
+  public long getTotalCount() {
+    return totalCount;
+  }
+
+  /** @return the least latency counted, or zero if there is none */
+  public long getMin() {
+    return totalCount == 0 ? 0 : min;
+  }
+
+  /** @return the greatest latency counted, or zero if there is none */
+  public long getMax() {
+    return max;
+  }
+
+  /** @return the mean latency, or zero if there is none */
+  public long getMean() {
+    return totalCount == 0 ? 0 : Math.round(sum / totalCount);
+  }
+
+  /** @return the standard deviation of the latencies, or zero if there is none */
+  public double getStdDeviation() {
+    if (totalCount == 0) {
+      return 0;
+    }
+    double mean = sum / totalCount;
+    return Math.sqrt(Math.max(sumOfSquares / totalCount - mean * mean, 0));
+  }
+
+  /**
+   * @param percentile between 0 and 100
+   * @return the latency which {@code percentile} percent of the latencies counted are at most, to
+   *     within the precision of the histogram, or zero if there is none
+   */
+  public long getValueAtPercentile(double percentile) {
+    long rank = Math.max((long) Math.ceil(percentile / 100 * totalCount), 1);
+    long seen = 0;
+    for (int i = 0; i < LENGTH && totalCount > 0; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(Math.max(highestEquivalentValue(i), getMin()), max);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Writes the counts, the zero ones left out, in a form read by {@link #read(InputStream)}.
+   *
+   * @param outputStream where to write, left open
+   * @throws IOException if writing fails
+   */
+  public void write(OutputStream outputStream) throws IOException {
+    DataOutputStream out = new DataOutputStream(outputStream);
+    out.writeInt(MAGIC);
+    out.writeLong(totalCount);
+    out.writeDouble(sum);
+    out.writeDouble(sumOfSquares);
+    out.writeLong(min);
+    out.writeLong(max);
+    int used = (int) Arrays.stream(counts).filter(count -> count != 0).count();
+    out.writeInt(used);
+    for (int i = 0; i < LENGTH; i++) {
+      if (counts[i] != 0) {
+        out.writeShort(i);
+        out.writeLong(counts[i]);
+      }
+    }
+    out.flush();
+  }
+
+  /**
+   * Reads a histogram written by {@link #write(OutputStream)}.
+   *
+   * @param inputStream where to read from, left open
+   * @return the histogram read
+   * @throws IOException if reading fails or the stream does not hold a histogram
+   */
+  public static LatencyHistogram read(InputStream inputStream) throws IOException {
+    DataInputStream in = new DataInputStream(inputStream);
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a latency histogram");
+    }
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.totalCount = in.readLong();
+    histogram.sum = in.readDouble();
+    histogram.sumOfSquares = in.readDouble();
+    histogram.min = in.readLong();
+    histogram.max = in.readLong();
+    for (int used = in.readInt(); used > 0; used--) {
+      int index = in.readUnsignedShort();
+      if (index >= LENGTH) {
+        throw new IOException("Not a latency histogram, bucket out of range: " + index);
+      }
+      histogram.counts[index] = in.readLong();
+    }
+    return histogram;
+  }
+
+  private static int indexOf(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return shift * HALF_COUNT + (int) (value >>> shift);
+  }
+
+  private static long highestEquivalentValue(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = index / HALF_COUNT - 1;
+    long subBucket = index - (long) shift * HALF_COUNT;
+    return ((subBucket + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.benchmark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * What running a test cost besides wall time: the bytes allocated and the CPU time used by the
+ * test thread, and the garbage collections run meanwhile. Garbage collections are counted for the
+ * whole JVM, so they include those caused by other threads.
+ *
+ * <p>A measure which the JVM does not support, or has been told not to take, is left out.
+ */
+final class ResourceUsage {
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  private static final long UNSUPPORTED = -1;
+
+  private final long wallNanos;
+
+  private final long cpuNanos;
+
+  private final long allocatedBytes;
+
+  private final long gcCount;
+
+  private final long gcMillis;
+
+  private ResourceUsage(
+      long wallNanos, long cpuNanos, long allocatedBytes, long gcCount, long gcMillis) {
+    this.wallNanos = wallNanos;
+    this.cpuNanos = cpuNanos;
+    this.allocatedBytes = allocatedBytes;
+    this.gcCount = gcCount;
+    this.gcMillis = gcMillis;
+  }
+
+  /** @return the usage of the current thread and the JVM so far */
+  static ResourceUsage now() {
+    long gcCount = 0;
+    long gcMillis = 0;
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      gcCount = sum(gcCount, collector.getCollectionCount());
+      gcMillis = sum(gcMillis, collector.getCollectionTime());
+    }
+    return new ResourceUsage(
+        System.nanoTime(), cpuNanos(), allocatedBytes(), gcCount, gcMillis);
+  }
+
+  /** @return the usage between {@code start} and this usage */
+  ResourceUsage since(ResourceUsage start) {
+    return new ResourceUsage(
+        wallNanos - start.wallNanos,
+        difference(cpuNanos, start.cpuNanos),
+        difference(allocatedBytes, start.allocatedBytes),
+        difference(gcCount, start.gcCount),
+        difference(gcMillis, start.gcMillis));
+  }
+
+  /** @return the bytes allocated by the thread, or -1 if the JVM does not tell */
+  long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * Adds an entry for each supported measure of this usage to a report.
+   *
+   * @param report the entries of a report entry, by key
+   * @param testName the name of the test, as in the keys of the other entries
+   * @param timeUnit the unit in which times are reported
+   */
+  void report(Map<String, String> report, String testName, TimeUnit timeUnit) {
+    put(report, String.format("Allocated bytes for %s", testName), allocatedBytes);
+    put(report, time("CPU", timeUnit, testName), convert(cpuNanos, NANOSECONDS, timeUnit));
+    put(report, time("Wall", timeUnit, testName), convert(wallNanos, NANOSECONDS, timeUnit));
+    put(report, String.format("GC count for %s", testName), gcCount);
+    put(report, time("GC", timeUnit, testName), convert(gcMillis, MILLISECONDS, timeUnit));
+  }
+
+  private static String time(String name, TimeUnit timeUnit, String testName) {
+    return String.format(BenchmarkExtension.REPORT_STATISTIC_FORMAT, name, timeUnit, testName);
+  }
+
+  private static void put(Map<String, String> report, String key, long value) {
+    if (value != UNSUPPORTED) {
+      report.put(key, Long.toString(value));
+    }
+  }
+
+  private static long convert(long value, TimeUnit from, TimeUnit to) {
+    return value == UNSUPPORTED ? UNSUPPORTED : to.convert(value, from);
+  }
+
+  private static long cpuNanos() {
+    return THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled()
+        ? THREADS.getCurrentThreadCpuTime()
+        : UNSUPPORTED;
+  }
+
+  private static long allocatedBytes() {
+    try {
+      if (THREADS instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+        if (threads.isThreadAllocatedMemorySupported()
+            && threads.isThreadAllocatedMemoryEnabled()) {
+          return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+      }
+    } catch (LinkageError e) {
+      // not a HotSpot based JVM
+    }
+    return UNSUPPORTED;
+  }
+
+  private static long sum(long total, long value) {
+    return total == UNSUPPORTED || value < 0 ? UNSUPPORTED : total + value;
+  }
+
+  private static long difference(long end, long start) {
+    return end == UNSUPPORTED || start == UNSUPPORTED ? UNSUPPORTED : end - start;
+  }
+}
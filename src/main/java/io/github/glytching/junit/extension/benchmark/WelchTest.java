@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.glytching.junit.extension.benchmark;
+
+/**
+ * Welch's t-test, telling whether the mean of one sample is greater than that of another when
+ * neither their sizes nor their variances need be equal, from the mean, standard deviation and
+ * size of each sample alone.
+ */
+final class WelchTest {
+
+  private static final int MAX_ITERATIONS = 300;
+
+  private static final double EPSILON = 1e-12;
+
+  private static final double TINY = 1e-300;
+
+  private WelchTest() {}
+
+  /**
+   * The one sided p-value of the hypothesis that the mean of the measured sample exceeds {@code
+   * factor} times the mean of the baseline sample, small values supporting it.
+   *
+   * @return the probability of a difference at least as large as the one seen when the measured
+   *     mean is in fact at most {@code factor} times the baseline mean
+   */
+  static double pValue(
+      double measuredMean,
+      double measuredDeviation,
+      long measuredCount,
+      double baselineMean,
+      double baselineDeviation,
+      long baselineCount,
+      double factor) {
+    double difference = measuredMean - factor * baselineMean;
+    double measuredError = measuredDeviation * measuredDeviation / measuredCount;
+    double baselineError =
+        factor * factor * baselineDeviation * baselineDeviation / baselineCount;
+    double error = measuredError + baselineError;
+    if (error == 0) {
+      // no variance at all, the difference is certain
+      return difference > 0 ? 0 : 1;
+    }
+    double t = difference / Math.sqrt(error);
+    double degreesOfFreedom =
+        error
+            * error
+            / (measuredError * measuredError / Math.max(measuredCount - 1, 1)
+                + baselineError * baselineError / Math.max(baselineCount - 1, 1));
+    return upperTail(t, degreesOfFreedom);
+  }
+
+  /** @return the probability of Student's t distribution exceeding {@code t} */
+  static double upperTail(double t, double degreesOfFreedom) {
+    double tail =
+        0.5
+            * regularizedIncompleteBeta(
+                degreesOfFreedom / (degreesOfFreedom + t * t), degreesOfFreedom / 2, 0.5);
+    return t > 0 ? tail : 1 - tail;
+  }
+
+  private static double regularizedIncompleteBeta(double x, double a, double b) {
+    if (x <= 0) {
+      return 0;
+    }
+    if (x >= 1) {
+      return 1;
+    }
+    double front =
+        Math.exp(
+            logGamma(a + b)
+                - logGamma(a)
+                - logGamma(b)
+                + a * Math.log(x)
+                + b * Math.log(1 - x));
+    // the continued fraction converges quickly on this side of its mean only
+    if (x < (a + 1) / (a + b + 2)) {
+      return front * continuedFraction(x, a, b) / a;
+    }
+    return 1 - front * continuedFraction(1 - x, b, a) / b;
+  }
+
+  /** Evaluates the continued fraction of the incomplete beta function by Lentz's method. */
+  private static double continuedFraction(double x, double a, double b) {
+    double c = 1;
+    double d = nonZero(1 - (a + b) * x / (a + 1));
+    d = 1 / d;
+    double fraction = d;
+    for (int m = 1; m <= MAX_ITERATIONS; m++) {
+      double even = m * (b - m) * x / ((a + 2 * m - 1) * (a + 2 * m));
+      d = 1 / nonZero(1 + even * d);
+      c = nonZero(1 + even / c);
+      fraction *= d * c;
+      double odd = -(a + m) * (a + b + m) * x / ((a + 2 * m) * (a + 2 * m + 1));
+      d = 1 / nonZero(1 + odd * d);
+      c = nonZero(1 + odd / c);
+      double delta = d * c;
+      fraction *= delta;
+      if (Math.abs(delta - 1) < EPSILON) {
+        break;
+      }
+    }
+    return fraction;
+  }
+
+  private static double nonZero(double value) {
+    return Math.abs(value) < TINY ? TINY : value;
+  }
+
+  /** The Lanczos approximation of the logarithm of the gamma function, for positive arguments. */
+  private static double logGamma(double x) {
+    double[] coefficients = {
+      76.18009172947146,
+      -86.50532032941677,
+      24.01409824083091,
+      -1.231739572450155,
+      0.1208650973866179e-2,
+      -0.5395239384953e-5
+    };
+    double base = x + 5.5;
+    double series = 1.000000000190015;
+    double y = x;
+    for (double coefficient : coefficients) {
+      series += coefficient / ++y;
+    }
+    return (x + 0.5) * Math.log(base) - base + Math.log(2.5066282746310005 * series / x);
+  }
+}
@@ -0,0 +1,52 @@
+package io.github.glytching.junit.extension.json;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes files by writing a temporary file next to them which is then moved into place, so that a
+ * concurrent reader, in this JVM or another, never sees a partly written file.
+ *
+ * @author xiaohui
+ */
+final class AtomicFiles {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private AtomicFiles() {}
+
+    /** Writes the content of a file. */
+    interface Content {
+
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /** Writes {@code target}, creating its directory and replacing any previous version of it. */
+    static void write(Path target, Content content) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out =
+                    new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE)) {
+                content.writeTo(out);
+            }
+            move(temporary, target);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.glytching.junit.extension.json;
+
+import static io.github.glytching.junit.extension.util.ExtensionUtil.getConfigurationParameter;
+
+import java.util.BitSet;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.PreconditionViolationException;
+import org.junit.platform.commons.util.Preconditions;
+
+/**
+ * The streamed cases to run, by their zero based index within their resource, so that a single
+ * case or a range of cases can be run again without running the others.
+ *
+ * <p>Cases are selected with the {@value #CASES_KEY} configuration parameter or system property, a
+ * comma separated list of indexes and inclusive ranges such as {@code 3,10-19}. The cases of a JSON
+ * Lines resource which is a plain file are then read straight from their offsets, see {@link
+ * LineIndex}, the cases of other resources are scanned past without being parsed.
+ *
+ * @author xiaohui
+ */
+final class CaseSelection {
+
+    static final String CASES_KEY = "junit.extensions.json.cases";
+
+    private final BitSet selected;
+
+    private CaseSelection(BitSet selected) {
+        this.selected = selected;
+    }
+
+    /** @return the cases selected for the given context, or null if every case runs */
+    static CaseSelection of(ExtensionContext context) {
+        return getConfigurationParameter(context, CASES_KEY)
+                .filter(it -> !it.trim().isEmpty())
+                .map(CaseSelection::parse)
+                .orElse(null);
+    }
+
+    /** @param selected the indexes of the selected cases */
+    static CaseSelection of(BitSet selected) {
+        return new CaseSelection((BitSet) selected.clone());
+    }
+
+    /** @param cases indexes and inclusive ranges, such as {@code 3,10-19} */
+    static CaseSelection parse(String cases) {
+        BitSet selected = new BitSet();
+        for (String part : cases.split(",")) {
+            String range = part.trim();
+            int dash = range.indexOf('-', 1);
+            try {
+                int from = Integer.parseInt(dash < 0 ? range : range.substring(0, dash).trim());
+                int to = dash < 0 ? from : Integer.parseInt(range.substring(dash + 1).trim());
+                Preconditions.condition(
+                        from >= 0 && from <= to, () -> "Invalid case range: " + range);
+                selected.set(from, to + 1);
+            } catch (NumberFormatException e) {
+                throw new PreconditionViolationException("Invalid case range: " + range, e);
+            }
+        }
+        return new CaseSelection(selected);
+    }
+
+    boolean contains(int index) {
+        return selected.get(index);
+    }
+
+    /** @return the selected indexes among {@code size} cases, in order */
+    IntStream indexes(int size) {
+        return selected.get(0, size).stream();
+    }
+}
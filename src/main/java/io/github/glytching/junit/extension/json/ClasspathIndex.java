@@ -0,0 +1,246 @@
+package io.github.glytching.junit.extension.json;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.platform.commons.util.Preconditions;
+
+/**
+ * Resolves glob patterns, such as {@code cases/**}{@code /*.json}, against the resources of a
+ * class loader, in directories and jars alike.
+ *
+ * <p>A pattern supports {@code *} within a path segment, {@code **} across segments, {@code ?},
+ * {@code [abc]} and {@code {a,b}}. A resource name ending with {@code /} is a directory, standing
+ * for every file beneath it. A pattern without a literal leading directory, such as
+ * {@code *.json}, also searches the jars of the class loader as far as they are known: those of a
+ * {@code URLClassLoader} and those of {@code java.class.path}, but not those named by the {@code
+ * Class-Path} of a manifest. Files written by this extension next to fixtures, such as compiled
+ * fixtures, are never matched.
+ *
+ * <p>Each directory is listed once per class loader, at the first pattern which reaches into it,
+ * and each pattern is resolved once per class loader, however many test methods use it.
+ *
+ * @author xiaohui
+ */
+final class ClasspathIndex {
+
+    private static final Map<ClassLoader, ClasspathIndex> INDEXES =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    /** the resources beneath each listed directory, by directory */
+    private final ConcurrentMap<String, List<String>> directories = new ConcurrentHashMap<>();
+
+    /** the resources matching each resolved pattern, by pattern */
+    private final ConcurrentMap<String, List<String>> patterns = new ConcurrentHashMap<>();
+
+    private ClasspathIndex() {}
+
+    static boolean isPattern(String resource) {
+        return resource.endsWith("/")
+                || resource.chars().anyMatch(it -> GLOB_CHARACTERS.indexOf(it) >= 0);
+    }
+
+    /**
+     * @param resources absolute resource paths, e.g. {@code /io/github/cases/*.json}
+     * @return the resources, each pattern being replaced by the resources of {@code classLoader}
+     *     it matches, in order of their paths
+     */
+    static String[] expand(ClassLoader classLoader, String[] resources) {
+        if (Arrays.stream(resources).noneMatch(ClasspathIndex::isPattern)) {
+            return resources;
+        }
+        ClasspathIndex index = INDEXES.computeIfAbsent(classLoader, it -> new ClasspathIndex());
+        return Arrays.stream(resources)
+                .flatMap(
+                        resource ->
+                                isPattern(resource)
+                                        ? index.resolve(classLoader, resource).stream()
+                                        : Stream.of(resource))
+                .toArray(String[]::new);
+    }
+
+    /** @return the absolute paths of the resources matching {@code pattern}, in order */
+    List<String> resolve(ClassLoader classLoader, String pattern) {
+        List<String> resources = patterns.computeIfAbsent(pattern, it -> match(classLoader, it));
+        Preconditions.condition(
+                !resources.isEmpty(),
+                () -> "*** No classpath resource matches: " + pattern + " ***");
+        return resources;
+    }
+
+    private List<String> match(ClassLoader classLoader, String pattern) {
+        String glob = pattern.startsWith("/") ? pattern.substring(1) : pattern;
+        if (glob.endsWith("/")) {
+            glob += "**";
+        }
+        Pattern regex = toRegex(glob);
+        return list(classLoader, directoryOf(glob)).stream()
+                .filter(resource -> regex.matcher(resource).matches())
+                .filter(resource -> !isGenerated(resource))
+                .map(resource -> "/" + resource)
+                .collect(Collectors.toList());
+    }
+
+    /** @return the literal directory a pattern starts with, {@code a/b/} for {@code a/b/*.json} */
+    private static String directoryOf(String glob) {
+        int firstGlob = 0;
+        while (firstGlob < glob.length() && GLOB_CHARACTERS.indexOf(glob.charAt(firstGlob)) < 0) {
+            firstGlob++;
+        }
+        return glob.substring(0, glob.lastIndexOf('/', firstGlob) + 1);
+    }
+
+    private static boolean isGenerated(String resource) {
+        return resource.endsWith(CompiledFixture.EXTENSION)
+                || resource.endsWith(LineIndex.EXTENSION)
+                || resource.endsWith(".tmp");
+    }
+
+    /** @return the sorted names of all resources beneath {@code directory} */
+    private List<String> list(ClassLoader classLoader, String directory) {
+        return directories.computeIfAbsent(
+                directory,
+                it -> {
+                    SortedSet<String> resources = new TreeSet<>();
+                    try {
+                        List<URL> roots = Collections.list(classLoader.getResources(it));
+                        if (it.isEmpty()) {
+                            roots.addAll(jarRootsOf(classLoader));
+                        }
+                        for (URL root : roots) {
+                            if ("file".equals(root.getProtocol())) {
+                                listDirectory(Paths.get(root.toURI()), it, resources);
+                            } else if ("jar".equals(root.getProtocol())) {
+                                listJar(root, it, resources);
+                            }
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (URISyntaxException e) {
+                        throw new IllegalArgumentException(e);
+                    }
+                    return Collections.unmodifiableList(new ArrayList<>(resources));
+                });
+    }
+
+    /**
+     * @return the roots of the jars {@code classLoader} loads from, which {@code getResources("")}
+     *     leaves out; known for a {@code URLClassLoader} and, from {@code java.class.path}, for the
+     *     system class loader
+     */
+    private static Set<URL> jarRootsOf(ClassLoader classLoader) throws IOException {
+        Set<URL> roots = new LinkedHashSet<>();
+        for (ClassLoader loader = classLoader; loader != null; loader = loader.getParent()) {
+            if (loader instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) loader).getURLs()) {
+                    addJarRoot(url, roots);
+                }
+            } else if (loader == ClassLoader.getSystemClassLoader()) {
+                String classPath = System.getProperty("java.class.path", "");
+                for (String entry : classPath.split(File.pathSeparator)) {
+                    if (!entry.isEmpty()) {
+                        addJarRoot(Paths.get(entry).toUri().toURL(), roots);
+                    }
+                }
+            }
+        }
+        return roots;
+    }
+
+    private static void addJarRoot(URL url, Set<URL> roots) throws MalformedURLException {
+        if ("file".equals(url.getProtocol()) && url.getPath().endsWith(".jar")) {
+            roots.add(new URL("jar:" + url + "!/"));
+        }
+    }
+
+    private static void listDirectory(Path root, String directory, Set<String> resources)
+            throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile)
+                    .map(file -> directory + root.relativize(file).toString().replace('\\', '/'))
+                    .forEach(resources::add);
+        }
+    }
+
+    private static void listJar(URL root, String directory, Set<String> resources)
+            throws IOException {
+        JarURLConnection connection = (JarURLConnection) root.openConnection();
+        connection.setUseCaches(false);
+        try (JarFile jar = connection.getJarFile()) {
+            for (JarEntry entry : Collections.list(jar.entries())) {
+                if (!entry.isDirectory() && entry.getName().startsWith(directory)) {
+                    resources.add(entry.getName());
+                }
+            }
+        }
+    }
+
+    static Pattern toRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        boolean inAlternatives = false;
+        for (int i = 0; i < glob.length(); i++) {
+            char current = glob.charAt(i);
+            switch (current) {
+                case '*':
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        i++;
+                        boolean directories = i + 1 < glob.length() && glob.charAt(i + 1) == '/';
+                        // a/**/b also matches a/b
+                        regex.append(directories ? "(?:.*/)?" : ".*");
+                        i += directories ? 1 : 0;
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                    break;
+                case '?':
+                    regex.append("[^/]");
+                    break;
+                case '[':
+                    int end = glob.indexOf(']', i);
+                    Preconditions.condition(end > i, () -> "Unclosed [ in pattern: " + glob);
+                    String characters = glob.substring(i + 1, end);
+                    // a negated class must not match the separator either, as ? does not
+                    regex.append('[')
+                            .append(
+                                    characters.startsWith("!")
+                                            ? "^/" + characters.substring(1)
+                                            : characters)
+                            .append(']');
+                    i = end;
+                    break;
+                case '{':
+                    inAlternatives = true;
+                    regex.append("(?:");
+                    break;
+                case '}':
+                    inAlternatives = false;
+                    regex.append(')');
+                    break;
+                case ',':
+                    regex.append(inAlternatives ? "|" : ",");
+                    break;
+                default:
+                    regex.append(Pattern.quote(String.valueOf(current)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
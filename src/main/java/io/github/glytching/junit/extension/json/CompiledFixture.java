@@ -0,0 +1,125 @@
+package io.github.glytching.junit.extension.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONReader;
+import java.io.*;
+import java.nio.file.*;
+import java.util.Arrays;
+
+/**
+ * The JSONB form of a JSON fixture, compiled on first use into a file next to the fixture, {@code
+ * people.json} being compiled into {@code people.json.jsonb}, and read in place of the fixture on
+ * later runs.
+ *
+ * <p>The compiled file records a digest of the fixture it was compiled from, and the versions of
+ * its format, fastjson2 and Java which wrote it. It is only used while all of them are still the
+ * same, so an edited fixture, or one compiled by another JDK or fastjson2, is compiled again;
+ * JSONB written by one of them is not always read back alike by another. It holds the document
+ * itself rather than any deserialized value, so it serves every parameter type the fixture is read
+ * into. A fixture which cannot be compiled next to, such as one in a read only directory, is simply
+ * read as JSON each time.
+ *
+ * @author xiaohui
+ */
+final class CompiledFixture {
+
+    static final String EXTENSION = ".jsonb";
+
+    private static final byte[] MAGIC = "JFB1".getBytes(UTF_8);
+
+    private static final int FORMAT_VERSION = 2;
+
+    /** the fastjson2 and Java versions which write and read compiled fixtures in this JVM */
+    private static final String RUNTIME =
+            "fastjson2 " + fastjsonVersion() + ", java " + System.getProperty("java.version");
+
+    private CompiledFixture() {}
+
+    /**
+     * @param fixture the JSON fixture, as a file
+     * @param content the content of {@code fixture}
+     * @return the JSONB form of {@code content}, compiled if no up to date form exists yet
+     */
+    static byte[] of(Path fixture, byte[] content) {
+        return of(fixture, content, RUNTIME);
+    }
+
+    /** As {@link #of(Path, byte[])}, with compiled fixtures written by {@code runtime}. */
+    static byte[] of(Path fixture, byte[] content, String runtime) {
+        Path compiled = compiledPathOf(fixture);
+        String digest = ParsedFixtureCache.digest(content);
+        byte[] jsonb = read(compiled, runtime, digest);
+        if (jsonb == null) {
+            jsonb = compile(content);
+            write(compiled, runtime, digest, jsonb);
+        }
+        return jsonb;
+    }
+
+    static Path compiledPathOf(Path fixture) {
+        return fixture.resolveSibling(fixture.getFileName() + EXTENSION);
+    }
+
+    private static byte[] compile(byte[] content) {
+        try (JSONReader reader = JSONReader.of(content, 0, content.length, UTF_8)) {
+            return JSONB.toBytes(reader.readAny());
+        }
+    }
+
+    /**
+     * @return the compiled document, or null if there is none compiled from {@code digest} by
+     *     {@code runtime}
+     */
+    private static byte[] read(Path compiled, String runtime, String digest) {
+        if (!Files.isRegularFile(compiled)) {
+            return null;
+        }
+        try (DataInputStream in =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(compiled)))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(MAGIC, magic)
+                    || in.readInt() != FORMAT_VERSION
+                    || !runtime.equals(in.readUTF())
+                    || !digest.equals(in.readUTF())) {
+                return null;
+            }
+            byte[] jsonb = new byte[in.readInt()];
+            in.readFully(jsonb);
+            return jsonb;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void write(Path compiled, String runtime, String digest, byte[] jsonb) {
+        try {
+            AtomicFiles.write(
+                    compiled,
+                    out -> {
+                        DataOutputStream data = new DataOutputStream(out);
+                        data.write(MAGIC);
+                        data.writeInt(FORMAT_VERSION);
+                        data.writeUTF(runtime);
+                        data.writeUTF(digest);
+                        data.writeInt(jsonb.length);
+                        data.write(jsonb);
+                        data.flush();
+                    });
+        } catch (IOException e) {
+            // the fixture is read as JSON until it can be compiled
+        }
+    }
+
+    /** @return the version of fastjson2 on the class path, rather than the one compiled against */
+    private static String fastjsonVersion() {
+        try {
+            return String.valueOf(JSON.class.getField("VERSION").get(null));
+        } catch (ReflectiveOperationException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package io.github.glytching.junit.extension.json;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.*;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolutionException;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.ReflectionSupport;
+
+/**
+ * The {@link ParameterResolver}s declared for a test method, so that {@link ParameterBinder} leaves
+ * the parameters they resolve, such as a {@code TemporaryFolder}, to them rather than binding them
+ * from JSON.
+ *
+ * <p>Resolvers are those registered with {@link ExtendWith} on the method, its parameters, its
+ * test class and the classes enclosing it, and those held by static {@link RegisterExtension}
+ * fields, or instance fields while a test instance exists. Extensions registered globally, through
+ * the {@link java.util.ServiceLoader}, are not known.
+ *
+ * <p>Resolvers are asked whether they support a parameter once, ahead of the invocations of the
+ * method, with a parameter context which has no test instance as target. A resolver which fails
+ * to answer fails the method, as it would when JUnit itself asks it later on.
+ *
+ * @author xiaohui
+ */
+final class DeclaredParameterResolvers implements Predicate<Parameter> {
+
+    private final ExtensionContext context;
+
+    private final List<ParameterResolver> resolvers;
+
+    private DeclaredParameterResolvers(ExtensionContext context, List<ParameterResolver> resolvers) {
+        this.context = context;
+        this.resolvers = resolvers;
+    }
+
+    /**
+     * @param context the context of the test method, or of any test method of its class
+     * @param method the test method
+     */
+    static DeclaredParameterResolvers of(ExtensionContext context, Method method) {
+        Map<Class<?>, ParameterResolver> resolvers = new LinkedHashMap<>();
+        List<AnnotatedElement> elements = new ArrayList<>();
+        elements.add(method);
+        elements.addAll(Arrays.asList(method.getParameters()));
+        List<Class<?>> testClasses = new ArrayList<>();
+        for (ExtensionContext current = context;
+                current != null;
+                current = current.getParent().orElse(null)) {
+            current.getTestClass()
+                    .filter(testClass -> !testClasses.contains(testClass))
+                    .ifPresent(testClasses::add);
+        }
+        elements.addAll(testClasses);
+        for (AnnotatedElement element : elements) {
+            for (ExtendWith extendWith :
+                    AnnotationSupport.findRepeatableAnnotations(element, ExtendWith.class)) {
+                for (Class<?> extension : extendWith.value()) {
+                    if (ParameterResolver.class.isAssignableFrom(extension)) {
+                        resolvers.computeIfAbsent(
+                                extension,
+                                key -> (ParameterResolver) ReflectionSupport.newInstance(key));
+                    }
+                }
+            }
+        }
+        Optional<Object> testInstance = context.getTestInstance();
+        for (Class<?> testClass : testClasses) {
+            for (Field field :
+                    AnnotationSupport.findAnnotatedFields(testClass, RegisterExtension.class)) {
+                boolean isStatic = Modifier.isStatic(field.getModifiers());
+                Optional<Object> target =
+                        isStatic ? Optional.empty() : testInstance.filter(testClass::isInstance);
+                if (!isStatic && !target.isPresent()) {
+                    continue;
+                }
+                ReflectionSupport.tryToReadFieldValue(field, target.orElse(null))
+                        .toOptional()
+                        .filter(ParameterResolver.class::isInstance)
+                        .ifPresent(
+                                resolver ->
+                                        resolvers.putIfAbsent(
+                                                resolver.getClass(),
+                                                (ParameterResolver) resolver));
+            }
+        }
+        return new DeclaredParameterResolvers(
+                context, Collections.unmodifiableList(new ArrayList<>(resolvers.values())));
+    }
+
+    /**
+     * @return whether a declared resolver resolves the parameter
+     * @throws ParameterResolutionException if a resolver fails to tell
+     */
+    @Override
+    public boolean test(Parameter parameter) {
+        ParameterContext parameterContext = new DeclaredParameterContext(parameter);
+        for (ParameterResolver resolver : resolvers) {
+            boolean supported;
+            try {
+                supported = resolver.supportsParameter(parameterContext, context);
+            } catch (RuntimeException e) {
+                throw new ParameterResolutionException(
+                        resolver.getClass().getName()
+                                + " failed to tell whether it resolves parameter ["
+                                + parameter
+                                + "], it is asked ahead of the invocations of "
+                                + parameter.getDeclaringExecutable(),
+                        e);
+            }
+            if (supported) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** A parameter of the test method, outside of any invocation of it. */
+    private static final class DeclaredParameterContext implements ParameterContext {
+
+        private final Parameter parameter;
+
+        DeclaredParameterContext(Parameter parameter) {
+            this.parameter = parameter;
+        }
+
+        @Override
+        public Parameter getParameter() {
+            return parameter;
+        }
+
+        @Override
+        public int getIndex() {
+            return Arrays.asList(parameter.getDeclaringExecutable().getParameters())
+                    .indexOf(parameter);
+        }
+
+        @Override
+        public Optional<Object> getTarget() {
+            return Optional.empty();
+        }
+
+        @Override
+        public boolean isAnnotated(Class<? extends Annotation> annotationType) {
+            return AnnotationSupport.isAnnotated(parameter, annotationType);
+        }
+
+        @Override
+        public <A extends Annotation> Optional<A> findAnnotation(Class<A> annotationType) {
+            return AnnotationSupport.findAnnotation(parameter, annotationType);
+        }
+
+        @Override
+        public <A extends Annotation> List<A> findRepeatableAnnotations(Class<A> annotationType) {
+            return AnnotationSupport.findRepeatableAnnotations(parameter, annotationType);
+        }
+    }
+}
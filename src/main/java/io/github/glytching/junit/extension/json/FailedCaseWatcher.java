@@ -0,0 +1,21 @@
+package io.github.glytching.junit.extension.json;
+
+import io.github.glytching.junit.extension.json.annotation.JsonFileSource;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.TestWatcher;
+
+/**
+ * Records the failed invocations of {@link JsonFileSource} methods in their {@link FailureIndex},
+ * so that only the failed cases can be replayed with {@code -Djunit.extensions.json.replay=true}.
+ *
+ * <p>It is registered by {@link JsonFileSource} itself and need not be registered explicitly.
+ *
+ * @author xiaohui
+ */
+public class FailedCaseWatcher implements TestWatcher {
+
+    @Override
+    public void testFailed(ExtensionContext context, Throwable cause) {
+        FailureIndex.failed(context);
+    }
+}
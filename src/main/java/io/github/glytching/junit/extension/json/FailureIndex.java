@@ -0,0 +1,314 @@
+package io.github.glytching.junit.extension.json;
+
+import static io.github.glytching.junit.extension.util.ExtensionUtil.getConfigurationParameter;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.util.ClassUtils;
+
+/**
+ * The failed cases of the {@code @JsonFileSource} methods of a module, kept in a small file so that
+ * only those cases need running again while they are being fixed.
+ *
+ * <p>Each invocation of a method is mapped back to the case it was supplied with, a resource and,
+ * when streaming, the index of the element within it. When the method ends, the cases which failed
+ * are written to the file, {@value #DEFAULT_FILE} unless set with the {@value #FILE_KEY}
+ * configuration parameter, in place of the cases of that method which ran. Cases which did not run,
+ * such as those of another shard, keep their entries. A method which neither failed nor had entries
+ * when it started leaves the file alone. The file is locked while it is rewritten, as forked JVMs
+ * may end methods at the same time, and is emptied rather than deleted once it has no entries.
+ *
+ * <p>An invocation is mapped by its number, so only methods whose only arguments source is {@code
+ * JsonFileSource} are tracked: the numbers of a method with further sources do not tell which
+ * invocations were supplied by {@code JsonFileSource}, so its failures are not recorded and all of
+ * its cases run while replaying.
+ *
+ * <p>With the {@value #REPLAY_KEY} configuration parameter or system property set to {@code true}
+ * only the failed cases recorded for a method run, elements being read straight from their offsets
+ * where the resource is indexed, see {@link LineIndex}. A method with no failed case is skipped.
+ *
+ * @author xiaohui
+ */
+final class FailureIndex implements ExtensionContext.Store.CloseableResource {
+
+    static final String REPLAY_KEY = "junit.extensions.json.replay";
+
+    static final String FILE_KEY = "junit.extensions.json.failures.file";
+
+    static final String DEFAULT_FILE = "target/json-file-source-failures.txt";
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(FailureIndex.class);
+
+    /** ends the unique id of an invocation, followed by its number from 1 and {@code ]} */
+    private static final String INVOCATION_SEGMENT = "/[test-template-invocation:#";
+
+    private static final String SEPARATOR = "\t";
+
+    /** stands for {@link GoldenRecorder#WHOLE_RESOURCE} in the file */
+    private static final String WHOLE_RESOURCE = "-";
+
+    private final Path file;
+
+    private final String method;
+
+    private final boolean replaying;
+
+    private final boolean tracked;
+
+    /** whether the file had entries of this method when it started */
+    private boolean recorded;
+
+    /** the resources supplied, each once, in the order they were first supplied */
+    private final List<String> resources = new ArrayList<>();
+
+    /** the resource and element each invocation was supplied with, by invocation */
+    private int[] resourceOf = new int[64];
+
+    private int[] elementOf = new int[64];
+
+    private int invocations;
+
+    private final BitSet failed = new BitSet();
+
+    FailureIndex(Path file, String method, boolean replaying, boolean tracked) {
+        this.file = file;
+        this.method = method;
+        this.replaying = replaying && tracked;
+        this.tracked = tracked;
+    }
+
+    /** @return the index of the test method of the given context, created on first use */
+    static FailureIndex of(ExtensionContext context) {
+        return context.getStore(NAMESPACE)
+                .getOrComputeIfAbsent(
+                        FailureIndex.class,
+                        key ->
+                                new FailureIndex(
+                                                Paths.get(
+                                                        getConfigurationParameter(
+                                                                        context, FILE_KEY)
+                                                                .orElse(DEFAULT_FILE)),
+                                                methodOf(context),
+                                                getConfigurationParameter(context, REPLAY_KEY)
+                                                        .map(Boolean::parseBoolean)
+                                                        .orElse(false),
+                                                isOnlySource(context.getRequiredTestMethod()))
+                                        .started(),
+                        FailureIndex.class);
+    }
+
+    /** @return whether {@code JsonFileSource} is the only arguments source of the method */
+    private static boolean isOnlySource(Method method) {
+        return AnnotationSupport.findRepeatableAnnotations(method, ArgumentsSource.class).size()
+                == 1;
+    }
+
+    private FailureIndex started() {
+        try {
+            recorded = tracked && !entriesOf(readLines()).isEmpty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read failed cases from " + file, e);
+        }
+        return this;
+    }
+
+    /** Records the failure of the invocation of the given context, if it supplied a case. */
+    static void failed(ExtensionContext invocation) {
+        String uniqueId = invocation.getUniqueId();
+        int segment = uniqueId.lastIndexOf(INVOCATION_SEGMENT);
+        FailureIndex index =
+                invocation
+                        .getParent()
+                        .map(it -> it.getStore(NAMESPACE).get(FailureIndex.class))
+                        .map(FailureIndex.class::cast)
+                        .orElse(null);
+        if (index != null && segment >= 0 && uniqueId.endsWith("]")) {
+            String number =
+                    uniqueId.substring(
+                            segment + INVOCATION_SEGMENT.length(), uniqueId.length() - 1);
+            index.failed(Integer.parseInt(number) - 1);
+        }
+    }
+
+    private static String methodOf(ExtensionContext context) {
+        Method method = context.getRequiredTestMethod();
+        return context.getRequiredTestClass().getName()
+                + "#"
+                + method.getName()
+                + "("
+                + ClassUtils.nullSafeToString(method.getParameterTypes())
+                + ")";
+    }
+
+    boolean replaying() {
+        return replaying;
+    }
+
+    /**
+     * @return the selection of the failed elements of each resource with failed cases, by resource,
+     *     or a null selection for a resource which failed as a whole
+     */
+    Map<String, CaseSelection> failedCases() throws IOException {
+        Map<String, BitSet> elements = new LinkedHashMap<>();
+        Set<String> whole = new HashSet<>();
+        for (String[] entry : entriesOf(readLines())) {
+            if (WHOLE_RESOURCE.equals(entry[2])) {
+                whole.add(entry[1]);
+            } else {
+                elements.computeIfAbsent(entry[1], it -> new BitSet())
+                        .set(Integer.parseInt(entry[2]));
+            }
+        }
+        Map<String, CaseSelection> cases = new LinkedHashMap<>();
+        elements.forEach((resource, selected) -> cases.put(resource, CaseSelection.of(selected)));
+        whole.forEach(resource -> cases.put(resource, null));
+        return cases;
+    }
+
+    /** Maps the next invocation to the case it is supplied with. */
+    synchronized void supplied(String resource, int element) {
+        if (!tracked) {
+            return;
+        }
+        if (resources.isEmpty() || !resources.get(resources.size() - 1).equals(resource)) {
+            resources.add(resource);
+        }
+        if (invocations == resourceOf.length) {
+            resourceOf = Arrays.copyOf(resourceOf, invocations << 1);
+            elementOf = Arrays.copyOf(elementOf, invocations << 1);
+        }
+        resourceOf[invocations] = resources.size() - 1;
+        elementOf[invocations] = element;
+        invocations++;
+    }
+
+    synchronized void failed(int invocation) {
+        if (invocation < invocations) {
+            failed.set(invocation);
+        }
+    }
+
+    /**
+     * Replaces the entries of the cases which ran with those which failed, unless there is neither
+     * an entry to replace nor a failure. The file itself is locked meanwhile, which is why it is
+     * rewritten in place rather than replaced.
+     */
+    @Override
+    public void close() throws IOException {
+        Set<String> ran;
+        synchronized (this) {
+            if (failed.isEmpty() && !recorded) {
+                return;
+            }
+            ran = ran();
+        }
+        synchronized (FailureIndex.class) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (FileChannel channel =
+                            FileChannel.open(
+                                    file,
+                                    StandardOpenOption.CREATE,
+                                    StandardOpenOption.READ,
+                                    StandardOpenOption.WRITE);
+                    FileLock ignored = channel.lock()) {
+                List<String> lines = readLines(channel);
+                boolean changed = lines.removeIf(ran::contains);
+                for (int i = failed.nextSetBit(0); i >= 0; i = failed.nextSetBit(i + 1)) {
+                    lines.add(lineOf(resources.get(resourceOf[i]), elementOf[i]));
+                    changed = true;
+                }
+                if (changed) {
+                    write(channel, lines);
+                }
+            }
+        }
+    }
+
+    /** @return the entries of the cases of this method which ran */
+    private synchronized Set<String> ran() {
+        Set<String> ran = new HashSet<>();
+        for (int i = 0; i < invocations; i++) {
+            ran.add(lineOf(resources.get(resourceOf[i]), elementOf[i]));
+        }
+        return ran;
+    }
+
+    private static void write(FileChannel channel, List<String> lines) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            text.append(line).append('\n');
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(text.toString().getBytes(UTF_8));
+        channel.truncate(0);
+        while (bytes.hasRemaining()) {
+            channel.write(bytes, bytes.position());
+        }
+    }
+
+    private String lineOf(String resource, int element) {
+        return method
+                + SEPARATOR
+                + resource
+                + SEPARATOR
+                + (element == GoldenRecorder.WHOLE_RESOURCE ? WHOLE_RESOURCE : element);
+    }
+
+    /** @return the method, resource and element of an entry, or null if it is not an entry */
+    private static String[] entryOf(String line) {
+        String[] entry = line.split(SEPARATOR);
+        return entry.length == 3 ? entry : null;
+    }
+
+    /** @return the entries of this method */
+    private List<String[]> entriesOf(List<String> lines) {
+        List<String[]> entries = new ArrayList<>();
+        for (String line : lines) {
+            String[] entry = entryOf(line);
+            if (entry != null && method.equals(entry[0])) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /** Reads the file under a shared lock, so that it is never read half rewritten. */
+    private List<String> readLines() throws IOException {
+        synchronized (FailureIndex.class) {
+            if (!Files.isRegularFile(file)) {
+                return new ArrayList<>();
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                    FileLock ignored = channel.lock(0, Long.MAX_VALUE, true)) {
+                return readLines(channel);
+            }
+        }
+    }
+
+    private static List<String> readLines(FileChannel channel) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate((int) channel.size());
+        while (bytes.hasRemaining() && channel.read(bytes, bytes.position()) >= 0) {
+            // reads until the buffer is full
+        }
+        List<String> lines = new ArrayList<>();
+        for (String line : new String(bytes.array(), 0, bytes.position(), UTF_8).split("\r?\n")) {
+            if (!line.isEmpty()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.glytching.junit.extension.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes a fixture stored in an encoded form, such as a compressed one, back into JSON.
+ *
+ * <p>A codec applies to every resource whose name ends with its {@link #extension()}, the rest of
+ * the name telling the layout of the decoded document, e.g. {@code cases.jsonl.gz} is read as JSON
+ * Lines once decoded. gzip ({@code .gz}) is supported out of the box. Further codecs are found with
+ * {@link java.util.ServiceLoader}, by listing their class names in {@code
+ * META-INF/services/io.github.glytching.junit.extension.json.FixtureCodec}.
+ *
+ * @author xiaohui
+ */
+public interface FixtureCodec {
+
+    /** @return the file name extension of the resources this codec decodes, e.g. {@code .zst} */
+    String extension();
+
+    /**
+     * Wraps the encoded content so that reading it yields the decoded JSON. The content is decoded
+     * as it is read, the decoded document is never required to be held as a whole.
+     */
+    InputStream decode(InputStream encoded) throws IOException;
+}
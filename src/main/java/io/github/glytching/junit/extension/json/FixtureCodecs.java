@@ -0,0 +1,47 @@
+package io.github.glytching.junit.extension.json;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * The {@link FixtureCodec}s known to this JVM, the built in gzip codec followed by those found
+ * with {@link ServiceLoader}.
+ *
+ * @author xiaohui
+ */
+final class FixtureCodecs {
+
+    private static final List<FixtureCodec> CODECS = load();
+
+    private FixtureCodecs() {}
+
+    /** @return the codec which decodes {@code resource}, or null if it is plain JSON */
+    static FixtureCodec of(String resource) {
+        for (FixtureCodec codec : CODECS) {
+            if (resource.endsWith(codec.extension())) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the name of {@code resource} once decoded, e.g. {@code cases.json.gz} yields {@code
+     *     cases.json}
+     */
+    static String decodedName(String resource) {
+        FixtureCodec codec = of(resource);
+        return codec == null
+                ? resource
+                : resource.substring(0, resource.length() - codec.extension().length());
+    }
+
+    private static List<FixtureCodec> load() {
+        List<FixtureCodec> codecs = new ArrayList<>();
+        codecs.add(new GzipFixtureCodec());
+        ServiceLoader.load(FixtureCodec.class).forEach(codecs::add);
+        return Collections.unmodifiableList(codecs);
+    }
+}
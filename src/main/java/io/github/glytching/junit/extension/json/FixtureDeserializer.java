@@ -0,0 +1,45 @@
+package io.github.glytching.junit.extension.json;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Reads the JSON values of a fixture into the parameters of a test method, in place of the
+ * fastjson2 reader built into {@link JsonFileArgumentsProvider}, e.g. to read domain types with the
+ * Jackson modules or generated codecs they are already tuned with.
+ *
+ * <p>Deserializers are found once per JVM with {@link java.util.ServiceLoader}, by listing their
+ * class names in {@code
+ * META-INF/services/io.github.glytching.junit.extension.json.FixtureDeserializer}, and are selected
+ * by {@link #name()}, either per method with {@link
+ * io.github.glytching.junit.extension.json.annotation.JsonFileSource#deserializer()} or for the
+ * whole run with the {@value FixtureDeserializers#DESERIALIZER_KEY} configuration parameter. The
+ * name {@value FixtureDeserializers#BUILT_IN} selects the built in reader.
+ *
+ * <p>A deserializer may read some types only, see {@link #supports(Type)}, values of other types
+ * are read by the built in reader. Implementations are shared by every test and must be thread
+ * safe.
+ *
+ * @author xiaohui
+ */
+public interface FixtureDeserializer {
+
+    /** @return the name which selects this deserializer, e.g. {@code jackson} */
+    String name();
+
+    /**
+     * @return whether this deserializer reads values of {@code type}, asked for every value so it
+     *     should be cheap; every type by default
+     */
+    default boolean supports(Type type) {
+        return true;
+    }
+
+    /**
+     * @param json the UTF-8 encoded JSON of a single value, the whole case or the part of it bound
+     *     to one parameter
+     * @param type the declared type of the parameter, with its type arguments
+     * @return the value read, an instance of {@code type}
+     */
+    Object deserialize(byte[] json, Type type) throws IOException;
+}
@@ -0,0 +1,94 @@
+package io.github.glytching.junit.extension.json;
+
+import static io.github.glytching.junit.extension.util.ExtensionUtil.getConfigurationParameter;
+
+import io.github.glytching.junit.extension.json.annotation.JsonFileSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.util.Preconditions;
+
+/**
+ * The {@link FixtureDeserializer}s known to this JVM, found with {@link ServiceLoader} on first
+ * use, see {@link Registered}.
+ *
+ * @author xiaohui
+ */
+final class FixtureDeserializers {
+
+    static final String DESERIALIZER_KEY = "junit.extensions.json.deserializer";
+
+    /** names the fastjson2 reader built into {@link JsonFileArgumentsProvider} */
+    static final String BUILT_IN = "fastjson2";
+
+    private FixtureDeserializers() {}
+
+    /**
+     * @return the deserializer selected by the annotation, or failing that by the configuration, or
+     *     null if the built in reader is selected
+     */
+    static FixtureDeserializer of(ExtensionContext context, JsonFileSource source) {
+        String name =
+                source.deserializer().isEmpty()
+                        ? getConfigurationParameter(context, DESERIALIZER_KEY).orElse(BUILT_IN)
+                        : source.deserializer();
+        return of(name);
+    }
+
+    static FixtureDeserializer of(String name) {
+        if (BUILT_IN.equals(name)) {
+            return null;
+        }
+        return Registered.SERVICES.get(name);
+    }
+
+    /**
+     * Deserializers by name. Those registered as services are loaded with the first deserializer
+     * selected, and a name taken by more than one of them is only reported once it is selected,
+     * rather than failing the class.
+     */
+    static final class Registered {
+
+        private static final Registered SERVICES =
+                new Registered(ServiceLoader.load(FixtureDeserializer.class));
+
+        private final Map<String, FixtureDeserializer> byName = new LinkedHashMap<>();
+
+        /** describes each name taken by more than one deserializer, by name */
+        private final Map<String, String> conflicts = new HashMap<>();
+
+        Registered(Iterable<FixtureDeserializer> deserializers) {
+            for (FixtureDeserializer deserializer : deserializers) {
+                FixtureDeserializer known = byName.putIfAbsent(deserializer.name(), deserializer);
+                if (known != null) {
+                    conflicts.merge(
+                            deserializer.name(),
+                            "FixtureDeserializer name "
+                                    + deserializer.name()
+                                    + " is taken by both "
+                                    + known.getClass().getName()
+                                    + " and "
+                                    + deserializer.getClass().getName(),
+                            (first, next) -> first);
+                }
+            }
+        }
+
+        FixtureDeserializer get(String name) {
+            Preconditions.condition(!conflicts.containsKey(name), () -> conflicts.get(name));
+            FixtureDeserializer deserializer = byName.get(name);
+            Preconditions.notNull(
+                    deserializer,
+                    () ->
+                            "No FixtureDeserializer named "
+                                    + name
+                                    + ", the deserializers known are "
+                                    + BUILT_IN
+                                    + " and those registered as services: "
+                                    + byName.keySet());
+            return deserializer;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.glytching.junit.extension.json;
+
+import static io.github.glytching.junit.extension.util.ExtensionUtil.getConfigurationParameter;
+import static java.util.Arrays.stream;
+
+import com.alibaba.fastjson2.JSON;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import lombok.SneakyThrows;
+import org.jeasy.random.EasyRandom;
+import org.jeasy.random.EasyRandomParameters;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Generates a fixture of random values for a test method whose fixture is missing, so that there
+ * is a fixture to start editing from.
+ *
+ * <p>Generation is reproducible: every fixture is generated from a fresh {@link EasyRandom} seeded
+ * with the {@value #SEED_KEY} configuration parameter, so the same method always gets the same
+ * fixture whatever else runs alongside it. Object graphs are generated down to the {@value
+ * #DEPTH_KEY} configuration parameter only, deeper references being left {@code null}.
+ *
+ * <p>Fixtures are written to a temporary file which is then moved into place, and at most once per
+ * JVM, so test classes running in parallel which miss the same fixture neither wait for nor
+ * overwrite each other. An existing file is never overwritten. A generated fixture is reported as
+ * a {@code generated fixture} report entry of the test method.
+ *
+ * @author xiaohui
+ */
+final class FixtureGenerator {
+
+    static final String SEED_KEY = "junit.extensions.json.generation.seed";
+
+    static final String DEPTH_KEY = "junit.extensions.json.generation.depth";
+
+    /** The default seed of {@link EasyRandomParameters}. */
+    private static final long DEFAULT_SEED = 123L;
+
+    private static final int DEFAULT_DEPTH = 5;
+
+    private static final Set<Path> GENERATED = ConcurrentHashMap.newKeySet();
+
+    private final EasyRandomParameters parameters;
+
+    /** publishes a report entry of the test method */
+    private final BiConsumer<String, String> reporter;
+
+    FixtureGenerator(long seed, int depth) {
+        this(seed, depth, (key, value) -> {});
+    }
+
+    private FixtureGenerator(long seed, int depth, BiConsumer<String, String> reporter) {
+        this.parameters = new EasyRandomParameters().seed(seed).randomizationDepth(depth);
+        this.reporter = reporter;
+    }
+
+    static FixtureGenerator of(ExtensionContext context) {
+        return new FixtureGenerator(
+                getConfigurationParameter(context, SEED_KEY)
+                        .map(Long::parseLong)
+                        .orElse(DEFAULT_SEED),
+                getConfigurationParameter(context, DEPTH_KEY)
+                        .map(Integer::parseInt)
+                        .orElse(DEFAULT_DEPTH),
+                context::publishReportEntry);
+    }
+
+    /**
+     * Writes a fixture for the parameters bound by {@code binder} to {@code target}, unless the
+     * file exists or has already been generated by this JVM.
+     */
+    void generate(Path target, ParameterBinder binder) {
+        Path file = target.toAbsolutePath().normalize();
+        if (Files.exists(file) || !GENERATED.add(file)) {
+            return;
+        }
+        byte[] json = JSON.toJSONBytes(binder.document(valuesOf(binder.types())));
+        try {
+            AtomicFiles.write(file, out -> out.write(json));
+        } catch (IOException e) {
+            GENERATED.remove(file);
+            throw new UncheckedIOException("Cannot write generated fixture " + file, e);
+        }
+        reporter.accept("generated fixture", file.toString());
+    }
+
+    /** @return one random value of each of {@code types} */
+    Object[] valuesOf(Type[] types) {
+        EasyRandom random = new EasyRandom(parameters);
+        return stream(types).map(type -> valueOf(random, type)).toArray();
+    }
+
+    @SneakyThrows
+    private Object valueOf(EasyRandom random, Type type) {
+        Object value;
+        if (type instanceof ParameterizedType) {
+            value = newParameterTypeInstance(random, (ParameterizedType) type);
+        } else {
+            Class<?> clazz =
+                    type instanceof Class ? (Class<?>) type : Class.forName(type.getTypeName());
+            value = random.nextObject(clazz);
+        }
+        JsonFileArgumentsProvider.setNullIfRecursive(value);
+        return value;
+    }
+
+    /**
+     * Here it is assumed that the raw type has a constructor taking one argument per type argument.
+     *
+     * <p>Because for parameterized types of classes (such as generic classes), we cannot actually
+     * find that field to assign a value to it, so as a compromise, it is agreed to use the
+     * constructor instead.
+     */
+    @SneakyThrows
+    private Object newParameterTypeInstance(EasyRandom random, ParameterizedType type) {
+        Class<?> rawType = (Class<?>) type.getRawType();
+        Type[] typeArguments = type.getActualTypeArguments();
+        Constructor<?> constructor;
+        try {
+            constructor = JsonFileArgumentsProvider.findSuitableConstructor(rawType, typeArguments);
+        } catch (UnsupportedOperationException exception) {
+            return random.nextObject(rawType);
+        }
+        Object[] args = stream(typeArguments).map(it -> valueOf(random, it)).toArray();
+        return constructor.newInstance(args);
+    }
+}
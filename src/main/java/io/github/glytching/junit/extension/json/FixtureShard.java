@@ -0,0 +1,153 @@
+package io.github.glytching.junit.extension.json;
+
+import static io.github.glytching.junit.extension.util.ExtensionUtil.getConfigurationParameter;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.util.Preconditions;
+
+/**
+ * The slice of the cases of a {@code @JsonFileSource} method which the current JVM runs, so that
+ * the cases of a large fixture can be spread over several forks.
+ *
+ * <p>Sharding is configured with configuration parameters or system properties: {@value
+ * #COUNT_KEY} is the number of shards and {@value #INDEX_KEY} the zero based index of the shard to
+ * run. Every case runs in exactly one shard. {@value #STRATEGY_KEY} picks how cases are assigned:
+ *
+ * <ul>
+ *   <li>{@code index}, the default, deals the cases out in turn. Cases of other shards are scanned
+ *       past without being copied or parsed.
+ *   <li>{@code hash} assigns a streamed element by a hash of its content and a whole resource by
+ *       the {@link String#hashCode()} of its path, so a case stays on the same shard when cases
+ *       are added or removed around it, and a resource does so when its content is edited too.
+ *       Cases of other shards are not parsed.
+ * </ul>
+ *
+ * <p>A case is a streamed element or, without streaming, a whole resource.
+ *
+ * @author xiaohui
+ */
+final class FixtureShard {
+
+    static final String COUNT_KEY = "junit.extensions.json.shard.count";
+
+    static final String INDEX_KEY = "junit.extensions.json.shard.index";
+
+    static final String STRATEGY_KEY = "junit.extensions.json.shard.strategy";
+
+    enum Strategy {
+        INDEX,
+        HASH
+    }
+
+    private final int count;
+
+    private final int index;
+
+    private final Strategy strategy;
+
+    /** the position of the next case among all cases of the method */
+    private long ordinal;
+
+    FixtureShard(int count, int index, Strategy strategy) {
+        Preconditions.condition(
+                count > 0 && index >= 0 && index < count,
+                () -> "Invalid JSON fixture shard " + index + " of " + count);
+        this.count = count;
+        this.index = index;
+        this.strategy = strategy;
+    }
+
+    /** @return the shard configured for the given context, or null if cases are not sharded */
+    static FixtureShard of(ExtensionContext context) {
+        Optional<Integer> count =
+                getConfigurationParameter(context, COUNT_KEY).map(Integer::parseInt);
+        if (!count.isPresent() || count.get() == 1) {
+            return null;
+        }
+        return new FixtureShard(
+                count.get(),
+                getConfigurationParameter(context, INDEX_KEY).map(Integer::parseInt).orElse(0),
+                getConfigurationParameter(context, STRATEGY_KEY)
+                        .map(it -> Strategy.valueOf(it.toUpperCase(Locale.ROOT)))
+                        .orElse(Strategy.INDEX));
+    }
+
+    /**
+     * @return the resources of this shard, each resource being a case of its own, hashed by its
+     *     path rather than read
+     */
+    String[] resources(String[] resources) {
+        return Arrays.stream(resources)
+                .filter(resource -> accepts(ordinal++, resource.hashCode()))
+                .toArray(String[]::new);
+    }
+
+    /** @return the elements of this shard */
+    Iterator<byte[]> elements(JsonElementReader elements) {
+        return new Iterator<byte[]>() {
+
+            private byte[] next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null) {
+                    if (strategy == Strategy.INDEX && !accepts(ordinal, 0)) {
+                        if (!elements.skip()) {
+                            return false;
+                        }
+                        ordinal++;
+                    } else if (!elements.hasNext()) {
+                        return false;
+                    } else {
+                        byte[] element = elements.next();
+                        if (accepts(ordinal++, Arrays.hashCode(element))) {
+                            next = element;
+                        }
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public byte[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                byte[] current = next;
+                next = null;
+                return current;
+            }
+        };
+    }
+
+    /**
+     * Assigns the {@code size} elements of an indexed resource, see {@link LineIndex}, without
+     * reading any of them by index, and only reading them for their hash otherwise.
+     *
+     * @param element reads an element by its index
+     * @return the indexes of the elements of this shard, in order
+     */
+    IntStream indexes(int size, IntFunction<byte[]> element) {
+        long first = ordinal;
+        ordinal += size;
+        if (strategy == Strategy.HASH) {
+            return IntStream.range(0, size)
+                    .filter(it -> accepts(0, Arrays.hashCode(element.apply(it))));
+        }
+        int start = (int) Math.floorMod(index - first, (long) count);
+        int accepted = start < size ? (size - start + count - 1) / count : 0;
+        return IntStream.range(0, accepted).map(it -> start + it * count);
+    }
+
+    private boolean accepts(long ordinal, int hash) {
+        long position = strategy == Strategy.INDEX ? ordinal : hash;
+        return Math.floorMod(position, (long) count) == index;
+    }
+}
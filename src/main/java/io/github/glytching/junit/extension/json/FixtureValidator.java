@@ -0,0 +1,288 @@
+package io.github.glytching.junit.extension.json;
+
+import static io.github.glytching.junit.extension.util.ExtensionUtil.getConfigurationParameter;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.JSONPath;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.schema.JSONSchema;
+import com.alibaba.fastjson2.schema.ValidateResult;
+import io.github.glytching.junit.extension.json.annotation.JsonFileSource;
+import io.github.glytching.junit.extension.util.ThreadUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
+import org.junit.platform.commons.util.Preconditions;
+
+/**
+ * Checks the fixtures of a test class against a JSON Schema before any of them is deserialized, so
+ * that a malformed case fails the class at once and points at the resource and case at fault,
+ * rather than surfacing as a binding error, or a null field, deep inside a test.
+ *
+ * <p>A method whose {@link JsonFileSource#schema()} names a schema resource has each of its cases,
+ * as written in the resource, checked against it. With the {@value #VALIDATE_KEY} configuration
+ * parameter or system property set to {@code true} every other {@code @JsonFileSource} method has
+ * the part of each case bound to its parameters checked against a schema derived from the
+ * parameter types, see {@link TypeSchema}.
+ *
+ * <p>The check runs once per test class, ahead of its first {@code @JsonFileSource} method. Each
+ * resource is read in a single pass, element by element when streaming, and resources are checked
+ * in parallel; the first invalid case of a method stops the remaining checks of that method and
+ * fails that method only, the other methods run as usual. Resources missing from the classpath are
+ * left to the provider.
+ *
+ * @author xiaohui
+ */
+final class FixtureValidator {
+
+    static final String VALIDATE_KEY = "junit.extensions.json.validate";
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(FixtureValidator.class);
+
+    /** the first invalid case of each method with one */
+    private final Map<Method, JSONException> failures;
+
+    private FixtureValidator(Map<Method, JSONException> failures) {
+        this.failures = failures;
+    }
+
+    /**
+     * Checks the fixtures of the test class of the given context on first use.
+     *
+     * @throws JSONException describing the first invalid case found for the test method of the
+     *     given context, if any
+     */
+    static void validate(ExtensionContext context) {
+        boolean derived =
+                getConfigurationParameter(context, VALIDATE_KEY)
+                        .map(Boolean::parseBoolean)
+                        .orElse(false);
+        FixtureValidator validator =
+                context.getParent()
+                        .orElse(context)
+                        .getStore(NAMESPACE)
+                        .getOrComputeIfAbsent(
+                                FixtureValidator.class,
+                                key -> new FixtureValidator(check(tasksOf(context, derived))),
+                                FixtureValidator.class);
+        JSONException failure = validator.failures.get(context.getRequiredTestMethod());
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static List<Task> tasksOf(ExtensionContext context, boolean derived) {
+        Class<?> testClass = context.getRequiredTestClass();
+        List<Task> tasks = new ArrayList<>();
+        for (Method method :
+                AnnotationSupport.findAnnotatedMethods(
+                        testClass, JsonFileSource.class, HierarchyTraversalMode.TOP_DOWN)) {
+            JsonFileSource source =
+                    AnnotationSupport.findAnnotation(method, JsonFileSource.class).get();
+            if (source.schema().isEmpty() && !derived) {
+                continue;
+            }
+            MethodMetadata metadata = MethodMetadata.of(context, method, source);
+            JSONSchema schema;
+            JSONPath projection = null;
+            if (source.schema().isEmpty()) {
+                schema = JSONSchema.of(metadata.binder().schema());
+                projection = metadata.projection();
+            } else {
+                schema = JSONSchema.of(schemaOf(testClass, source.schema()));
+            }
+            for (String resource : metadata.resourcePaths()) {
+                tasks.add(
+                        new Task(
+                                testClass,
+                                method,
+                                resource,
+                                source.streaming(),
+                                schema,
+                                projection));
+            }
+        }
+        return tasks;
+    }
+
+    private static JSONObject schemaOf(Class<?> testClass, String schemaName) {
+        String resource = MethodMetadata.resourcePathOf(testClass, schemaName);
+        InputStream inputStream = testClass.getResourceAsStream(resource);
+        Preconditions.notNull(inputStream, () -> "Schema resource does not exist: " + resource);
+        return JSON.parseObject(readAllBytes(inputStream));
+    }
+
+    /**
+     * @return the first invalid case found for each method, the remaining tasks of a method being
+     *     skipped once one of them failed
+     */
+    private static Map<Method, JSONException> check(List<Task> tasks) {
+        Map<Method, JSONException> failures = new ConcurrentHashMap<>();
+        if (tasks.isEmpty()) {
+            return failures;
+        }
+        ExecutorService executor =
+                ThreadUtils.newDaemonThreadPool(
+                        Math.min(tasks.size(), cores()), "json-fixture-validate");
+        try {
+            CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+            for (Task task : tasks) {
+                completion.submit(
+                        () -> {
+                            if (failures.containsKey(task.method)) {
+                                return;
+                            }
+                            try {
+                                task.run();
+                            } catch (JSONException e) {
+                                failures.putIfAbsent(task.method, e);
+                            } catch (RuntimeException e) {
+                                failures.putIfAbsent(
+                                        task.method, new JSONException(e.getMessage(), e));
+                            }
+                        },
+                        null);
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                completion.take().get();
+            }
+            return failures;
+        } catch (ExecutionException e) {
+            throw new JSONException("Failed to validate fixtures", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            JSONException interrupted =
+                    new JSONException("Interrupted while validating fixtures", e);
+            tasks.forEach(task -> failures.putIfAbsent(task.method, interrupted));
+            return failures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int cores() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    private static byte[] readAllBytes(InputStream inputStream) {
+        try {
+            return JsonFileArgumentsProvider.readAllBytes(inputStream);
+        } catch (IOException e) {
+            throw new JSONException("Failed to read " + e.getMessage(), e);
+        }
+    }
+
+    /** Checks each case of one resource against the schema of one method. */
+    private static final class Task implements Runnable {
+
+        private final Class<?> testClass;
+
+        private final Method method;
+
+        private final String resource;
+
+        private final boolean streaming;
+
+        private final JSONSchema schema;
+
+        private final JSONPath projection;
+
+        Task(
+                Class<?> testClass,
+                Method method,
+                String resource,
+                boolean streaming,
+                JSONSchema schema,
+                JSONPath projection) {
+            this.testClass = testClass;
+            this.method = method;
+            this.resource = resource;
+            this.streaming = streaming;
+            this.schema = schema;
+            this.projection = projection;
+        }
+
+        @Override
+        public void run() {
+            InputStream content = testClass.getResourceAsStream(resource);
+            if (content == null) {
+                return;
+            }
+            try {
+                FixtureCodec codec = FixtureCodecs.of(resource);
+                if (codec != null) {
+                    content = codec.decode(content);
+                }
+            } catch (IOException e) {
+                close(content);
+                throw new JSONException("Failed to decode fixture " + resource, e);
+            }
+            if (!streaming) {
+                check(readAllBytes(content), -1);
+                return;
+            }
+            try (JsonElementReader elements =
+                    JsonElementReader.of(FixtureCodecs.decodedName(resource), content)) {
+                while (elements.hasNext() && !Thread.currentThread().isInterrupted()) {
+                    byte[] element = elements.next();
+                    check(element, elements.index());
+                }
+            }
+        }
+
+        /**
+         * Checks one case, {@code -1} standing for the whole resource. With a path only the part it
+         * selects is read, the subtrees it does not select being skipped, as the provider reads
+         * it. The part checked is parsed into a tree anyway, the input {@link JSONSchema} takes:
+         * the check is made once per class, so its cost is that of one more read of each case.
+         */
+        private void check(byte[] json, int element) {
+            Object value;
+            try (JSONReader reader = JSONReader.of(json)) {
+                value = projection == null ? reader.readAny() : projection.extract(reader);
+                if (projection == null && !reader.isEnd()) {
+                    throw new JSONException(reader.info("input not end"));
+                }
+            } catch (JSONException e) {
+                throw new JSONException(locationOf(element) + e.getMessage(), e);
+            }
+            ValidateResult result = schema.validate(value);
+            if (!result.isSuccess()) {
+                throw new JSONException(locationOf(element) + result.getMessage());
+            }
+        }
+
+        private String locationOf(int element) {
+            if (element < 0) {
+                return "Invalid fixture " + resource + ": ";
+            }
+            return "Invalid fixture "
+                    + resource
+                    + ", case "
+                    + element
+                    + " (run it alone with -D"
+                    + CaseSelection.CASES_KEY
+                    + "="
+                    + element
+                    + "): ";
+        }
+
+        private static void close(InputStream inputStream) {
+            try {
+                inputStream.close();
+            } catch (IOException ignored) {
+                // the failure to decode is reported instead
+            }
+        }
+    }
+}
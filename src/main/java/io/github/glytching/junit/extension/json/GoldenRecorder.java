@@ -0,0 +1,274 @@
+package io.github.glytching.junit.extension.json;
+
+import static io.github.glytching.junit.extension.util.ExtensionUtil.getConfigurationParameter;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Records the actual outputs handed to {@link TestCase#record(Object)} as the expected outputs of
+ * their fixtures, so that golden files can be regenerated by running their tests.
+ *
+ * <p>Recording is switched on with the {@value #RECORD_KEY} configuration parameter or system
+ * property. Outputs are collected in memory while a test class runs and written when it ends, each
+ * fixture file being rewritten once whatever the number of its cases, through a temporary file
+ * moved into place. Only the recorded {@code output} values are spliced in, the rest of a fixture
+ * is left as it is written, formatting included. Fixtures are rewritten in the source tree, from
+ * which the next build copies them onto the classpath.
+ *
+ * @author xiaohui
+ */
+final class GoldenRecorder implements ExtensionContext.Store.CloseableResource {
+
+    static final String RECORD_KEY = "junit.extensions.json.record";
+
+    /** The element index of a case which is the whole resource. */
+    static final int WHOLE_RESOURCE = -1;
+
+    private static final String OUTPUT_NAME = "\"output\"";
+
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+    /** the characters which end a number, {@code true}, {@code false} or {@code null} */
+    private static final String LITERAL_ENDS = ",}] \t\r\n";
+
+    /** stands for a recorded {@code null}, which the map of outputs cannot hold */
+    private static final Object NULL = new Object();
+
+    private final Path root;
+
+    /** the recorded outputs of each resource, by element index */
+    private final ConcurrentMap<String, SortedMap<Integer, Object>> outputs =
+            new ConcurrentHashMap<>();
+
+    /** @param root the directory the resources are rewritten in */
+    GoldenRecorder(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * @return the recorder of the test class of the given context, or null if outputs are not
+     *     being recorded
+     */
+    static GoldenRecorder of(ExtensionContext context, String root) {
+        boolean recording =
+                getConfigurationParameter(context, RECORD_KEY)
+                        .map(Boolean::parseBoolean)
+                        .orElse(false);
+        if (!recording) {
+            return null;
+        }
+        return context.getParent()
+                .orElse(context)
+                .getStore(ExtensionContext.Namespace.create(GoldenRecorder.class))
+                .getOrComputeIfAbsent(
+                        GoldenRecorder.class,
+                        key -> new GoldenRecorder(Paths.get(root)),
+                        GoldenRecorder.class);
+    }
+
+    /**
+     * @param resource the absolute path of the resource holding the case
+     * @param element the index of the case within the resource, or {@value #WHOLE_RESOURCE}
+     */
+    void record(String resource, int element, Object output) {
+        // a snapshot, as the test may go on to change its output
+        Object snapshot = JSON.toJSON(output);
+        outputs.computeIfAbsent(resource, key -> new ConcurrentSkipListMap<>())
+                .put(element, snapshot == null ? NULL : snapshot);
+    }
+
+    /** Rewrites each resource with an output recorded, once. */
+    @Override
+    public void close() throws IOException {
+        for (Map.Entry<String, SortedMap<Integer, Object>> recorded : outputs.entrySet()) {
+            Path file = root.resolve(recorded.getKey().substring(1));
+            if (Files.isRegularFile(file)) {
+                String content = new String(Files.readAllBytes(file), UTF_8);
+                byte[] updated =
+                        (JsonElementReader.isJsonLines(recorded.getKey())
+                                        ? updateLines(content, recorded.getValue())
+                                        : updateDocument(content, recorded.getValue()))
+                                .getBytes(UTF_8);
+                AtomicFiles.write(file, out -> out.write(updated));
+            }
+        }
+        outputs.clear();
+    }
+
+    /**
+     * Splices the recorded outputs into a document, the whole document being a case or an array
+     * of cases, and leaves everything else as it is written.
+     */
+    private static String updateDocument(String content, SortedMap<Integer, Object> outputs) {
+        StringBuilder document = new StringBuilder(content);
+        int start = skipWhitespace(content, content.startsWith(BYTE_ORDER_MARK) ? 1 : 0);
+        if (start < content.length() && content.charAt(start) == '[') {
+            List<Integer> elements = elementsOf(content, start);
+            // from the last element on, so that the elements before keep their offsets
+            for (Map.Entry<Integer, Object> output : reversed(outputs).entrySet()) {
+                int element = output.getKey();
+                if (element != WHOLE_RESOURCE && element < elements.size()) {
+                    setOutput(document, elements.get(element), output.getValue());
+                }
+            }
+        } else if (!outputs.isEmpty()) {
+            setOutput(document, start, outputs.get(outputs.lastKey()));
+        }
+        return document.toString();
+    }
+
+    /** Rewrites the recorded lines only, leaving every other line as it is. */
+    private static String updateLines(String content, Map<Integer, Object> outputs) {
+        String[] lines = content.split("\n", -1);
+        int element = 0;
+        for (int i = 0; i < lines.length; i++) {
+            if (!lines[i].trim().isEmpty()) {
+                Object output = outputs.get(element);
+                if (output == null && element == 0) {
+                    output = outputs.get(WHOLE_RESOURCE);
+                }
+                element++;
+                if (output != null) {
+                    StringBuilder line = new StringBuilder(lines[i]);
+                    int start = i == 0 && lines[i].startsWith(BYTE_ORDER_MARK) ? 1 : 0;
+                    setOutput(line, skipWhitespace(line, start), output);
+                    lines[i] = line.toString();
+                }
+            }
+        }
+        return String.join("\n", lines);
+    }
+
+    private static SortedMap<Integer, Object> reversed(SortedMap<Integer, Object> outputs) {
+        SortedMap<Integer, Object> reversed = new TreeMap<>(Collections.reverseOrder());
+        reversed.putAll(outputs);
+        return reversed;
+    }
+
+    /**
+     * Replaces the value of the {@code output} member of the case starting at {@code start}, or
+     * adds the member after the last one, if the case is an object.
+     */
+    private static void setOutput(StringBuilder json, int start, Object output) {
+        if (start >= json.length() || json.charAt(start) != '{') {
+            return;
+        }
+        String value =
+                JSON.toJSONString(output == NULL ? null : output, JSONWriter.Feature.WriteNulls);
+        int member = skipWhitespace(json, start + 1);
+        if (charAt(json, member) == '}') {
+            json.insert(member, OUTPUT_NAME + ": " + value);
+            return;
+        }
+        while (true) {
+            int nameEnd = skipString(json, member);
+            boolean isOutput = OUTPUT_NAME.contentEquals(json.subSequence(member, nameEnd));
+            int valueStart = skipWhitespace(json, expect(json, skipWhitespace(json, nameEnd), ':'));
+            int valueEnd = skipValue(json, valueStart);
+            if (isOutput) {
+                json.replace(valueStart, valueEnd, value);
+                return;
+            }
+            int next = skipWhitespace(json, valueEnd);
+            if (charAt(json, next) == '}') {
+                json.insert(valueEnd, ", " + OUTPUT_NAME + ": " + value);
+                return;
+            }
+            member = skipWhitespace(json, expect(json, next, ','));
+        }
+    }
+
+    /** @return the offsets of the elements of the array starting at {@code start} */
+    private static List<Integer> elementsOf(CharSequence json, int start) {
+        List<Integer> elements = new ArrayList<>();
+        int next = skipWhitespace(json, start + 1);
+        if (charAt(json, next) == ']') {
+            return elements;
+        }
+        while (true) {
+            elements.add(next);
+            int end = skipWhitespace(json, skipValue(json, next));
+            if (charAt(json, end) == ']') {
+                return elements;
+            }
+            next = skipWhitespace(json, expect(json, end, ','));
+        }
+    }
+
+    /** @return the offset just after the value starting at {@code start} */
+    private static int skipValue(CharSequence json, int start) {
+        char first = charAt(json, start);
+        if (first == '"') {
+            return skipString(json, start);
+        }
+        if (first != '{' && first != '[') {
+            int end = start;
+            while (end < json.length() && LITERAL_ENDS.indexOf(json.charAt(end)) < 0) {
+                end++;
+            }
+            return end;
+        }
+        int depth = 0;
+        for (int i = start; ; i++) {
+            char current = charAt(json, i);
+            if (current == '"') {
+                i = skipString(json, i) - 1;
+            } else if (current == '{' || current == '[') {
+                depth++;
+            } else if ((current == '}' || current == ']') && --depth == 0) {
+                return i + 1;
+            }
+        }
+    }
+
+    private static int skipString(CharSequence json, int start) {
+        for (int i = expect(json, start, '"'); ; i++) {
+            char current = charAt(json, i);
+            if (current == '\\') {
+                i++;
+            } else if (current == '"') {
+                return i + 1;
+            }
+        }
+    }
+
+    private static int skipWhitespace(CharSequence json, int start) {
+        int end = start;
+        while (end < json.length() && Character.isWhitespace(json.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    private static int expect(CharSequence json, int index, char expected) {
+        if (charAt(json, index) != expected) {
+            throw new JSONException(
+                    "Expected '" + expected + "' at offset " + index + " of a recorded fixture");
+        }
+        return index + 1;
+    }
+
+    private static char charAt(CharSequence json, int index) {
+        if (index >= json.length()) {
+            throw new JSONException("Unexpected end of a recorded fixture");
+        }
+        return json.charAt(index);
+    }
+}
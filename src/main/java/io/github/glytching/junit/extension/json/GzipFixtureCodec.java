@@ -0,0 +1,25 @@
+package io.github.glytching.junit.extension.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decodes gzip compressed fixtures, such as {@code cases.json.gz}.
+ *
+ * @author xiaohui
+ */
+final class GzipFixtureCodec implements FixtureCodec {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Override
+    public String extension() {
+        return ".gz";
+    }
+
+    @Override
+    public InputStream decode(InputStream encoded) throws IOException {
+        return new GZIPInputStream(encoded, BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,374 @@
+package io.github.glytching.junit.extension.json;
+
+import com.alibaba.fastjson2.JSONException;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads a JSON document one top level element at a time, so that a fixture holding many cases
+ * never has to be held in memory as a whole.
+ *
+ * <p>Two layouts are understood:
+ *
+ * <ul>
+ *   <li>a JSON array, each element of which is returned in turn. A document which is not an array
+ *       is returned as a single element.
+ *   <li>JSON Lines ({@code .jsonl} or {@code .ndjson}), each non blank line of which is returned in
+ *       turn.
+ * </ul>
+ *
+ * <p>Elements are returned as the raw UTF-8 bytes of that element only, ready to be handed to a
+ * {@link com.alibaba.fastjson2.JSONReader}. Only the element currently being read is buffered.
+ *
+ * @author xiaohui
+ */
+abstract class JsonElementReader implements Iterator<byte[]>, Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /** the UTF-8 encoded byte order mark, skipped at the start of a document only */
+    private static final int[] BYTE_ORDER_MARK = {0xEF, 0xBB, 0xBF};
+
+    private final InputStream inputStream;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private int position;
+
+    private int limit;
+
+    private long offset;
+
+    private byte[] element = new byte[256];
+
+    private int elementLength;
+
+    private byte[] next;
+
+    private boolean finished;
+
+    /** whether the element being read is scanned past rather than copied */
+    private boolean skipping;
+
+    /** the number of elements read or skipped so far */
+    private int count;
+
+    JsonElementReader(InputStream inputStream) {
+        this.inputStream = inputStream;
+    }
+
+    static JsonElementReader of(String resource, InputStream inputStream) {
+        return isJsonLines(resource)
+                ? new JsonLinesReader(inputStream)
+                : new JsonArrayReader(inputStream);
+    }
+
+    static boolean isJsonLines(String resource) {
+        return resource.endsWith(".jsonl") || resource.endsWith(".ndjson");
+    }
+
+    /**
+     * Reads the next element into the element buffer.
+     *
+     * @return false if the document holds no more elements
+     */
+    abstract boolean readElement() throws IOException;
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            next = advance();
+        }
+        return next != null;
+    }
+
+    @Override
+    public byte[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        byte[] current = next;
+        next = null;
+        return current;
+    }
+
+    /**
+     * @return the index of the element last returned by {@link #next()}, as long as {@link
+     *     #hasNext()} has not been called since
+     */
+    int index() {
+        return count - 1;
+    }
+
+    /**
+     * Moves past the next element, which is scanned for its end but never copied.
+     *
+     * @return false if the document holds no more elements
+     */
+    boolean skip() {
+        if (next != null) {
+            next = null;
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+        skipping = true;
+        try {
+            elementLength = 0;
+            finished = !readElement();
+            if (!finished) {
+                count++;
+            }
+            return !finished;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            skipping = false;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] advance() {
+        try {
+            elementLength = 0;
+            if (readElement()) {
+                count++;
+                return Arrays.copyOf(element, elementLength);
+            }
+            finished = true;
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** @return the next byte of the document, or -1 at the end of the document */
+    final int read() throws IOException {
+        if (position == limit) {
+            limit = inputStream.read(buffer, 0, BUFFER_SIZE);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        offset++;
+        return buffer[position++] & 0xFF;
+    }
+
+    /** @return the next byte of the document without consuming it, or -1 at the end */
+    final int peek() throws IOException {
+        int current = read();
+        if (current != -1) {
+            position--;
+            offset--;
+        }
+        return current;
+    }
+
+    /**
+     * @return the next byte which is not whitespace, nor the byte order mark at the start of the
+     *     document, or -1
+     */
+    final int readSignificant() throws IOException {
+        boolean start = offset == 0;
+        int current = read();
+        if (start && current == BYTE_ORDER_MARK[0]) {
+            for (int i = 1; i < BYTE_ORDER_MARK.length; i++) {
+                if (read() != BYTE_ORDER_MARK[i]) {
+                    throw malformed("Malformed byte order mark");
+                }
+            }
+            current = read();
+        }
+        while (isWhitespace(current)) {
+            current = read();
+        }
+        return current;
+    }
+
+    final void append(int current) {
+        if (!skipping) {
+            if (elementLength == element.length) {
+                element = Arrays.copyOf(element, element.length << 1);
+            }
+            element[elementLength] = (byte) current;
+        }
+        elementLength++;
+    }
+
+    final int elementLength() {
+        return elementLength;
+    }
+
+    final JSONException malformed(String message) {
+        return new JSONException(message + ", offset " + offset);
+    }
+
+    static boolean isWhitespace(int current) {
+        return current == ' ' || current == '\n' || current == '\r' || current == '\t';
+    }
+
+    /**
+     * Scans one value of a document held in memory, as {@link JsonArrayReader} scans one value of
+     * a stream, without interpreting it.
+     *
+     * @return the offset just past the value starting at {@code start}
+     */
+    static int endOfValue(byte[] json, int start) {
+        int depth = 0;
+        boolean inString = false;
+        for (int i = start; i < json.length; i++) {
+            int current = json[i];
+            if (inString) {
+                if (current == '\\') {
+                    i++;
+                } else if (current == '"') {
+                    inString = false;
+                }
+            } else if (current == '"') {
+                inString = true;
+            } else if (current == '{' || current == '[') {
+                depth++;
+            } else if (current == '}' || current == ']') {
+                depth--;
+            }
+            if (depth == 0 && !inString && isValueEnd(i + 1 < json.length ? json[i + 1] : -1)) {
+                return i + 1;
+            }
+        }
+        throw new JSONException("Unexpected end of JSON document, offset " + json.length);
+    }
+
+    private static boolean isValueEnd(int next) {
+        return next == ',' || next == ']' || next == '}' || next == -1 || isWhitespace(next);
+    }
+
+    /** @return the length of the UTF-8 byte order mark starting {@code content}, if any */
+    static int byteOrderMarkLength(ByteBuffer content) {
+        if (content.limit() < BYTE_ORDER_MARK.length) {
+            return 0;
+        }
+        for (int i = 0; i < BYTE_ORDER_MARK.length; i++) {
+            if ((content.get(i) & 0xFF) != BYTE_ORDER_MARK[i]) {
+                return 0;
+            }
+        }
+        return BYTE_ORDER_MARK.length;
+    }
+
+    private static final class JsonArrayReader extends JsonElementReader {
+
+        /** null until the first byte has been seen, then whether the document is an array */
+        private Boolean array;
+
+        JsonArrayReader(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        boolean readElement() throws IOException {
+            int current = readSignificant();
+            if (array == null) {
+                array = current == '[';
+                if (array) {
+                    current = readSignificant();
+                    if (current == ']') {
+                        return end();
+                    }
+                } else if (current == -1) {
+                    return false;
+                }
+            } else if (!array) {
+                return end(current);
+            } else if (current == ',') {
+                current = readSignificant();
+                if (current == ']' || current == -1) {
+                    throw malformed("Expected an array element after ','");
+                }
+            } else if (current == ']') {
+                return end();
+            } else {
+                throw malformed("Expected ',' or ']' after an array element");
+            }
+            readValue(current);
+            return true;
+        }
+
+        /** @return false, once nothing but whitespace is found up to the end of the document */
+        private boolean end() throws IOException {
+            return end(readSignificant());
+        }
+
+        private boolean end(int current) {
+            if (current != -1) {
+                throw malformed("Expected the end of the JSON document");
+            }
+            return false;
+        }
+
+        /** Copies one value, starting with {@code current}, into the element buffer. */
+        private void readValue(int current) throws IOException {
+            int depth = 0;
+            boolean inString = false;
+            while (true) {
+                if (current == -1) {
+                    if (depth == 0 && !inString && elementLength() > 0) {
+                        return;
+                    }
+                    throw malformed("Unexpected end of JSON document");
+                }
+                append(current);
+                if (inString) {
+                    if (current == '\\') {
+                        append(read());
+                    } else if (current == '"') {
+                        inString = false;
+                    }
+                } else if (current == '"') {
+                    inString = true;
+                } else if (current == '{' || current == '[') {
+                    depth++;
+                } else if (current == '}' || current == ']') {
+                    depth--;
+                }
+                if (depth == 0 && !inString && isValueEnd(peek())) {
+                    return;
+                }
+                current = read();
+            }
+        }
+    }
+
+    private static final class JsonLinesReader extends JsonElementReader {
+
+        JsonLinesReader(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        boolean readElement() throws IOException {
+            int current = readSignificant();
+            if (current == -1) {
+                return false;
+            }
+            while (current != '\n' && current != -1) {
+                append(current);
+                current = read();
+            }
+            return true;
+        }
+    }
+}
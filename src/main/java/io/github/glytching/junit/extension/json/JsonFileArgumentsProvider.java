@@ -1,27 +1,38 @@
 package io.github.glytching.junit.extension.json;
 
-import static java.util.Arrays.copyOf;
 import static java.util.Arrays.stream;
-import static java.util.concurrent.CompletableFuture.*;
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterator.ORDERED;
+import static java.util.Spliterators.spliteratorUnknownSize;
 
-import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONPath;
 import com.alibaba.fastjson2.JSONReader;
 import java.io.*;
 import java.lang.reflect.*;
-import java.nio.charset.Charset;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import io.github.glytching.junit.extension.json.annotation.JsonFileSource;
 import io.github.glytching.junit.extension.util.RecursiveReferenceDetector;
 import io.github.glytching.junit.extension.util.ReflectionUtils;
 import io.github.glytching.junit.extension.util.TypeUtils;
 import lombok.SneakyThrows;
-import org.jeasy.random.EasyRandom;
-import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -54,6 +65,26 @@ import org.junit.platform.commons.util.Preconditions;
  * }
  * }</pre>
  *
+ * <p>A resource can also hold many cases: with {@code @JsonFileSource(resources = "cases.json",
+ * streaming = true)} each element of a top level JSON array, or each line of a JSON Lines resource,
+ * is supplied as an invocation of its own.
+ *
+ * <p>A resource may also be a glob pattern, such as {@code cases/**}{@code /*.json}, or a
+ * directory, such as {@code cases/}, see {@link ClasspathIndex}.
+ *
+ * <p>The cases of a method can be spread over several JVMs, see {@link FixtureShard}, and single
+ * streamed cases can be run again by their index, see {@link CaseSelection}. The cases which
+ * failed last can be run again on their own, see {@link FailureIndex}.
+ *
+ * <p>Values are read with fastjson2 unless another {@link FixtureDeserializer} is selected, such
+ * as one backed by Jackson. Parsed values are then neither cached nor compiled.
+ *
+ * <p>The cases of a test class can be checked against a JSON Schema before any test runs, see
+ * {@link FixtureValidator}.
+ *
+ * <p>A resource may be stored compressed, e.g. {@code cases.jsonl.gz}, it is then decompressed as
+ * it is read. Other encodings can be plugged in as a {@link FixtureCodec}.
+ *
  * Detailed example usage can be seen in the {@code JsonFileArgumentsProviderTest}.
  * <p>Note that this class relies on the {@link com.alibaba.fastjson2.JSON} library for JSON processing
  * and uses the {@link org.jeasy.random.EasyRandom} library for generating random values for object
@@ -74,144 +105,410 @@ public class JsonFileArgumentsProvider
 
     public static final String ADDRESS_DASH = "/";
     private final BiFunction<Class<?>, String, InputStream> inputStreamProvider;
+    private final BiFunction<Class<?>, String, URL> resourceLocator;
     private static final String RESOURCES_PATH_PREFIX = "src/test/resources";
 
-    private static final EasyRandom RANDOM = new EasyRandom();
+    /** The public constructors of each class, as {@link Class#getConstructors()} copies them. */
+    private static final ClassValue<Constructor<?>[]> CONSTRUCTORS =
+            new ClassValue<Constructor<?>[]>() {
+                @Override
+                protected Constructor<?>[] computeValue(Class<?> clazz) {
+                    return clazz.getConstructors();
+                }
+            };
+
+    private JsonFileSource source;
+
+    private boolean streaming;
+
+    private boolean cached;
+
+    private boolean compiled;
+
+    private int prefetch;
+
+    private ParameterBinder binder;
+
+    private JSONPath projection;
+
+    /** the projection if it can be read by a deserializer, see {@link MemberPath} */
+    private MemberPath memberPath;
+
+    /** reads the values in place of the built in reader, or null */
+    private FixtureDeserializer deserializer;
 
-    private String[] resourceNames;
+    /** identifies how cases are bound, for use as a cache key */
+    private String casesKey;
+
+    private ParsedFixtureCache cache;
+
+    private ParsedFixtureCache.Statistics cacheStatistics;
+
+    private FixtureShard shard;
+
+    private CaseSelection selection;
+
+    private FailureIndex failures;
+
+    /** the cases to replay by resource while replaying failed cases, otherwise null */
+    private Map<String, CaseSelection> replayed;
+
+    private GoldenRecorder recorder;
 
     private Method requiredTestMethod;
 
     private Class<?> requiredTestClass;
 
-    private Class<?> testMethodParameterClazz;
+    private FixtureGenerator generator;
 
     @SuppressWarnings("unused")
     JsonFileArgumentsProvider() {
-        this(Class::getResourceAsStream);
+        this(Class::getResourceAsStream, Class::getResource);
     }
 
     JsonFileArgumentsProvider(BiFunction<Class<?>, String, InputStream> inputStreamProvider) {
+        this(inputStreamProvider, (testClass, resource) -> null);
+    }
+
+    /**
+     * @param inputStreamProvider opens a resource as a stream
+     * @param resourceLocator locates a resource, a resource located as a plain file is read from
+     *     that file rather than through {@code inputStreamProvider}
+     */
+    JsonFileArgumentsProvider(
+            BiFunction<Class<?>, String, InputStream> inputStreamProvider,
+            BiFunction<Class<?>, String, URL> resourceLocator) {
         this.inputStreamProvider = inputStreamProvider;
+        this.resourceLocator = resourceLocator;
     }
 
-    private Object valueOfType(InputStream inputStream) {
-        try (JSONReader reader = JSONReader.of(inputStream, Charset.defaultCharset())) {
-            return reader.read(testMethodParameterClazz);
+    /**
+     * Binds the case, with the deserializer if there is one, which is handed the values it reads
+     * as they are written, see {@link ParameterBinder#read(byte[], MemberPath,
+     * FixtureDeserializer)}.
+     */
+    private Object[] valuesOfTypes(byte[] element) {
+        if (deserializer != null) {
+            return binder.read(element, memberPath, deserializer);
+        }
+        try (JSONReader reader =
+                JSONReader.of(
+                        element,
+                        0,
+                        element.length,
+                        StandardCharsets.UTF_8,
+                        TestCaseObjectReader.context())) {
+            return valuesOfTypes(reader);
         }
     }
 
-    @Override
-    public void accept(JsonFileSource jsonFileSource) {
-        resourceNames = jsonFileSource.resources();
+    /**
+     * Binds the case read by {@code reader}, or with {@link JsonFileSource#path()} only the part of
+     * it selected by that path, with the built in reader. The path is extracted while parsing,
+     * skipping the subtrees it does not select, and the selected part is converted to the bound
+     * types as it is.
+     */
+    private Object[] valuesOfTypes(JSONReader reader) {
+        return projection == null
+                ? binder.read(reader)
+                : binder.bind(projection.extract(reader));
+    }
+
+    private Object[] valuesOf(String resource) {
+        byte[] content = readContent(resource);
+        Function<byte[], Object[]> parser =
+                compiled && deserializer == null && FixtureCodecs.of(resource) == null
+                        ? compiledContent -> compiledValuesOf(resource, compiledContent)
+                        : this::valuesOfTypes;
+        return cache == null
+                ? parser.apply(content)
+                : cache.get(
+                        cacheStatistics, resource, casesKey, binder.types(), content, parser);
+    }
+
+    /**
+     * Reads the values from the JSONB form of a resource which is a plain file, see {@link
+     * CompiledFixture}. Other resources are read as JSON.
+     */
+    private Object[] compiledValuesOf(String resource, byte[] content) {
+        Path file = fileOf(resource);
+        if (file == null) {
+            return valuesOfTypes(content);
+        }
+        try (JSONReader reader =
+                JSONReader.ofJSONB(
+                        CompiledFixture.of(file, content), TestCaseObjectReader.context())) {
+            return valuesOfTypes(reader);
+        } catch (JSONException e) {
+            if (projection == null) {
+                throw e;
+            }
+            // not every path can be extracted from JSONB, a path missing from the case for one
+            return valuesOfTypes(content);
+        }
+    }
+
+    /**
+     * Reads the whole resource. A resource which is a plain file, as is the case for an exploded
+     * {@code test-classes} directory, is read in one go into an array of its size rather than
+     * copied through streams and buffers. Other resources, such as jar entries, are read from their
+     * stream. An encoded resource, see {@link FixtureCodec}, is read decoded.
+     */
+    @SneakyThrows(IOException.class)
+    private byte[] readContent(String resource) {
+        if (FixtureCodecs.of(resource) != null) {
+            return readAllBytes(openContent(resource));
+        }
+        Path file = fileOf(resource);
+        return file != null
+                ? Files.readAllBytes(file)
+                : readAllBytes(openInputStream(requiredTestClass, resource));
+    }
+
+    /**
+     * Opens the resource for incremental reading, from its file if it is a plain file, decoding it
+     * as it is read if it is encoded.
+     */
+    @SneakyThrows(IOException.class)
+    private InputStream openContent(String resource) {
+        Path file = fileOf(resource);
+        InputStream content =
+                file != null
+                        ? Files.newInputStream(file)
+                        : openInputStream(requiredTestClass, resource);
+        FixtureCodec codec = FixtureCodecs.of(resource);
+        return codec == null ? content : decode(codec, content);
     }
 
-    private String[] getResourcePaths(String[] partResourceNames) {
-        final String[] resourcePaths = copyOf(partResourceNames, partResourceNames.length);
-        String packageName = requiredTestClass.getPackage().getName();
-        for (int i = 0; i < resourcePaths.length; i++) {
-            resourcePaths[i] =
-                    packageName.replaceAll("\\.", ADDRESS_DASH) + ADDRESS_DASH + partResourceNames[i];
+    @SneakyThrows(IOException.class)
+    private static InputStream decode(FixtureCodec codec, InputStream encoded) {
+        try {
+            return codec.decode(encoded);
+        } catch (IOException | RuntimeException e) {
+            encoded.close();
+            throw e;
         }
-        for (int i = 0; i < resourcePaths.length; i++) {
-            if (!partResourceNames[i].startsWith(ADDRESS_DASH)) {
-                resourcePaths[i] = ADDRESS_DASH + resourcePaths[i];
+    }
+
+    @SneakyThrows(URISyntaxException.class)
+    private Path fileOf(String resource) {
+        URL url = resourceLocator.apply(requiredTestClass, resource);
+        if (url == null || !"file".equals(url.getProtocol())) {
+            return null;
+        }
+        return Paths.get(url.toURI());
+    }
+
+    /** Reads the whole of {@code inputStream} and closes it. */
+    static byte[] readAllBytes(InputStream inputStream) throws IOException {
+        try (InputStream in = inputStream) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream(Math.max(in.available(), 256));
+            byte[] buffer = new byte[8192];
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                content.write(buffer, 0, read);
             }
+            return content.toByteArray();
         }
-        return resourcePaths;
     }
 
-    /** Only support one genericParameterType */
+    @Override
+    public void accept(JsonFileSource jsonFileSource) {
+        source = jsonFileSource;
+        streaming = jsonFileSource.streaming();
+        cached = jsonFileSource.cache();
+        compiled = jsonFileSource.compile();
+        prefetch = jsonFileSource.prefetch();
+    }
+
+    /**
+     * Binds each case onto the parameters of the test method as configured by {@link
+     * JsonFileSource#binding()}, by default the whole case is bound to the first parameter.
+     */
     @Override
     public Stream<? extends Arguments> provideArguments(ExtensionContext context) {
         requiredTestMethod = context.getRequiredTestMethod();
         requiredTestClass = context.getRequiredTestClass();
-        testMethodParameterClazz = initTestMethodParameterClazz();
-        String[] resourcePaths = getResourcePaths(resourceNames);
-        return stream(resourcePaths)
-                .map(resource -> openInputStream(requiredTestClass, resource))
-                .map(this::valueOfType)
-                .map(Arguments::arguments);
+        FixtureValidator.validate(context);
+        MethodMetadata metadata = MethodMetadata.of(context, requiredTestMethod, source);
+        binder = metadata.binder();
+        projection = metadata.projection();
+        memberPath = metadata.memberPath();
+        casesKey = metadata.casesKey();
+        deserializer = FixtureDeserializers.of(context, source);
+        Preconditions.condition(
+                deserializer == null || projection == null || memberPath != null,
+                () ->
+                        "A path read by a deserializer may select by member names and array"
+                                + " indexes only, such as $.data.items[0]: "
+                                + source.path());
+        generator = FixtureGenerator.of(context);
+        shard = FixtureShard.of(context);
+        selection = CaseSelection.of(context);
+        recorder = GoldenRecorder.of(context, RESOURCES_PATH_PREFIX);
+        failures = FailureIndex.of(context);
+        replayed = failures.replaying() ? failedCases() : null;
+        String[] resourcePaths = metadata.resourcePaths();
+        if (replayed != null) {
+            resourcePaths =
+                    stream(resourcePaths).filter(replayed::containsKey).toArray(String[]::new);
+            Assumptions.assumeTrue(resourcePaths.length > 0, "No failed case to replay");
+        }
+        if (shard != null && !streaming) {
+            resourcePaths = shard.resources(resourcePaths);
+        }
+        if (cached && !streaming && deserializer == null) {
+            cache = ParsedFixtureCache.of(context);
+            cacheStatistics = new ParsedFixtureCache.Statistics();
+        }
+        Stream<Arguments> arguments =
+                prefetch > 0 && !streaming
+                        ? prefetchedArgumentsOf(resourcePaths)
+                        : stream(resourcePaths).flatMap(this::argumentsOf);
+        return cache == null
+                ? arguments
+                : arguments.onClose(() -> cacheStatistics.publish(context));
     }
 
-    /** Only support one genericParameterType */
-    @SneakyThrows
-    private Class<?> initTestMethodParameterClazz() {
-        Type genericParameterType = requiredTestMethod.getGenericParameterTypes()[0];
-        String testMethodParameterTypeName =
-                genericParameterType instanceof ParameterizedType
-                        ? ((ParameterizedType) genericParameterType).getRawType().getTypeName()
-                        : genericParameterType.getTypeName();
-        return Class.forName(testMethodParameterTypeName);
+    /** Reads and parses up to {@code prefetch} resources ahead of the invocation which uses them. */
+    private Stream<Arguments> prefetchedArgumentsOf(String[] resourcePaths) {
+        PrefetchingIterator<Object[]> values =
+                new PrefetchingIterator<>(
+                        stream(resourcePaths)
+                                .<Supplier<Object[]>>map(
+                                        resource ->
+                                                () ->
+                                                        recorded(
+                                                                resource,
+                                                                GoldenRecorder.WHOLE_RESOURCE,
+                                                                valuesOf(resource)))
+                                .iterator(),
+                        prefetch);
+        AtomicInteger supplied = new AtomicInteger();
+        return StreamSupport.stream(spliteratorUnknownSize(values, ORDERED), false)
+                .onClose(values::close)
+                .map(
+                        it ->
+                                logged(
+                                        resourcePaths[supplied.getAndIncrement()],
+                                        GoldenRecorder.WHOLE_RESOURCE,
+                                        it))
+                .map(Arguments::arguments);
     }
 
-    @SneakyThrows(Exception.class)
-    private InputStream openInputStream(Class<?> testClass, String resource) {
-        InputStream inputStream;
-        inputStream = inputStreamProvider.apply(testClass, resource);
-        if (inputStream == null) {
-            CompletableFuture<String> resourceFuture = supplyAsync(() -> createTestResource(resource));
-            // avoid too long to end this process by io error
-            inputStream = inputStreamProvider.apply(testClass, resourceFuture.get(5, TimeUnit.SECONDS));
+    /**
+     * In streaming mode each element of the resource is an invocation of its own, the elements are
+     * read lazily so the first invocation starts before the rest of the resource has been read.
+     */
+    private Stream<Arguments> argumentsOf(String resource) {
+        if (!streaming) {
+            return Stream.of(
+                    Arguments.arguments(
+                            supplied(resource, GoldenRecorder.WHOLE_RESOURCE, valuesOf(resource))));
         }
-        return Preconditions.notNull(
-                inputStream,
-                () ->
-                        "*** Classpath resource does not exist: " + resource + ", and we have created it ***");
+        CaseSelection cases = replayed == null ? selection : replayed.get(resource);
+        if (shard != null || cases != null) {
+            LineIndex index = lineIndexOf(resource);
+            if (index != null) {
+                return indexedArgumentsOf(resource, index, cases);
+            }
+        }
+        JsonElementReader elements =
+                JsonElementReader.of(FixtureCodecs.decodedName(resource), openContent(resource));
+        Iterator<byte[]> selected = shard == null ? elements : shard.elements(elements);
+        return StreamSupport.stream(spliteratorUnknownSize(selected, ORDERED | NONNULL), false)
+                .onClose(elements::close)
+                .filter(element -> cases == null || cases.contains(elements.index()))
+                .map(element -> supplied(resource, elements.index(), valuesOfTypes(element)))
+                .map(Arguments::arguments);
     }
 
-    private String createTestResource(String resource) {
-        createDirectoryForResource(resource);
-        return createFileAndWriteTestResource(resource);
+    /** @return the offset index of a JSON Lines resource which is a plain file, or null */
+    @SneakyThrows(IOException.class)
+    private LineIndex lineIndexOf(String resource) {
+        if (!JsonElementReader.isJsonLines(resource)) {
+            return null;
+        }
+        Path file = fileOf(resource);
+        return file == null ? null : LineIndex.of(file);
     }
 
-    private String createFileAndWriteTestResource(String resource) {
-        try {
-            String moduleAbsoluteResource = RESOURCES_PATH_PREFIX + resource;
-            File file = createFile(moduleAbsoluteResource);
-            writeTestResource2File(moduleAbsoluteResource, file);
-            return resource;
-        } catch (IOException e) {
-            System.out.println("Error creating file: " + e.getMessage());
-            throw new RuntimeException(e);
+    /**
+     * Reads the elements of this shard and selection only, straight from their offsets, without
+     * scanning the elements before them. The index is closed with the stream.
+     */
+    private Stream<Arguments> indexedArgumentsOf(
+            String resource, LineIndex index, CaseSelection cases) {
+        IntStream indexes =
+                shard == null
+                        ? cases.indexes(index.size())
+                        : shard.indexes(index.size(), index::element);
+        if (shard != null && cases != null) {
+            indexes = indexes.filter(cases::contains);
         }
+        return indexes.mapToObj(
+                        element ->
+                                supplied(
+                                        resource,
+                                        element,
+                                        valuesOfTypes(index.element(element))))
+                .map(Arguments::arguments)
+                .onClose(index::close);
     }
 
-    private static File createFile(String moduleAbsoluteResource) throws IOException {
-        File file = new File(moduleAbsoluteResource);
-        if (!file.createNewFile()) {
-            System.out.println("File already exists or could not be created: " + moduleAbsoluteResource);
-        }
-        return file;
+    @SneakyThrows(IOException.class)
+    private Map<String, CaseSelection> failedCases() {
+        return failures.failedCases();
     }
 
-    private void writeTestResource2File(String moduleAbsoluteResource, File file) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(moduleAbsoluteResource))) {
-            Type[] genericParameterTypes = requiredTestMethod.getGenericParameterTypes();
-            Type genericParameterType = genericParameterTypes[0];
-            Object parameterInstance = getParameterInstance(genericParameterType);
-            writer.write(JSON.toJSONString(parameterInstance));
-            writer.flush();
-            System.out.println(
-                    moduleAbsoluteResource + (file.exists() ? "\ncreated successfully" : "on way..."));
-        }
+    /** Supplies the values of a case, see {@link #recorded} and {@link #logged}. */
+    private Object[] supplied(String resource, int element, Object[] values) {
+        return logged(resource, element, recorded(resource, element, values));
     }
 
-    @SneakyThrows
-    private Object getParameterInstance(Type genericParameterType) {
-        Object object;
-        if (genericParameterType instanceof ParameterizedType) {
-            object = newParameterTypeInstance((ParameterizedType) genericParameterType);
-        } else {
-            object = newConcreteTypeInstance(Class.forName(genericParameterType.getTypeName()));
+    /** Maps the invocation about to be supplied with {@code values} to its case. */
+    private Object[] logged(String resource, int element, Object[] values) {
+        failures.supplied(resource, element);
+        return values;
+    }
+
+    /**
+     * While golden outputs are recorded, see {@link GoldenRecorder}, lets a {@link TestCase} bound
+     * as a whole record its actual output into the resource it was read from.
+     */
+    private Object[] recorded(String resource, int element, Object[] values) {
+        GoldenRecorder current = recorder;
+        if (current != null
+                && projection == null
+                && FixtureCodecs.of(resource) == null
+                && values.length == 1
+                && values[0] instanceof TestCase) {
+            ((TestCase<?, ?>) values[0])
+                    .recordTo(output -> current.record(resource, element, output));
         }
-        return object;
+        return values;
     }
 
-    private static Object newConcreteTypeInstance(Class<?> testMethodParameterClazz1) {
-        Object object = RANDOM.nextObject(testMethodParameterClazz1);
-        setNullIfRecursive(object);
-        return object;
+    /**
+     * Opens a resource from the classpath. A missing resource is generated into {@value
+     * #RESOURCES_PATH_PREFIX}, see {@link FixtureGenerator}, from where the next build puts it on
+     * the classpath. Until then, the generated file itself is read, so that the run which generates
+     * a fixture already runs its cases.
+     */
+    @SneakyThrows(IOException.class)
+    private InputStream openInputStream(Class<?> testClass, String resource) {
+        InputStream inputStream = inputStreamProvider.apply(testClass, resource);
+        if (inputStream == null && FixtureCodecs.of(resource) == null) {
+            Path generated = Paths.get(RESOURCES_PATH_PREFIX + resource);
+            generator.generate(generated, binder);
+            inputStream = inputStreamProvider.apply(testClass, resource);
+            if (inputStream == null && Files.isRegularFile(generated)) {
+                inputStream = Files.newInputStream(generated);
+            }
+        }
+        return Preconditions.notNull(
+                inputStream,
+                () ->
+                        "*** Classpath resource does not exist: " + resource + ", and we have created it ***");
     }
 
     public static void setNullIfRecursive(Object object) {
@@ -234,42 +531,9 @@ public class JsonFileArgumentsProvider
         }
     }
 
-    /**
-     * Here it is assumed that {@code testMethodParameterClass} must have corresponding constructor
-     * arguments.
-     *
-     * <p>Because for parameterized types of classes (such as generic classes), we cannot actually
-     * find that field to assign a value to it, so as a compromise, it is agreed to use the
-     * constructor instead.
-     */
-    @SneakyThrows
-    @NotNull
-    private Object newParameterTypeInstance(ParameterizedType genericParameterType) {
-        Class<?> methodParameterClazz = Class.forName(genericParameterType.getRawType().getTypeName());
-        Type[] genericParameterTypes = genericParameterType.getActualTypeArguments();
-        Object newInstance;
-        try {
-            newInstance = newInstanceBySuitableConstructor(methodParameterClazz, genericParameterTypes);
-        } catch (UnsupportedOperationException exception) {
-            System.out.println(exception.toString());
-            newInstance = RANDOM.nextObject(methodParameterClazz);
-        }
-        return newInstance;
-    }
-
-    @NotNull
-    private Object newInstanceBySuitableConstructor(
-            Class<?> methodParameterClazz, Type[] genericParameterTypes)
-            throws InstantiationException, IllegalAccessException, InvocationTargetException {
-        Constructor<?> suitableConstructor =
-                findSuitableConstructor(methodParameterClazz, genericParameterTypes);
-        Object[] args = stream(genericParameterTypes).map(this::getParameterInstance).toArray();
-        return suitableConstructor.newInstance(args);
-    }
-
     @SneakyThrows
     public static Constructor<?> findSuitableConstructor(Class<?> clazz, Type[] typeArguments) {
-        return stream(clazz.getConstructors())
+        return stream(CONSTRUCTORS.get(clazz))
                 .filter(it -> it.getParameterCount() == typeArguments.length)
                 .findFirst()
                 .orElseThrow(
@@ -278,11 +542,4 @@ public class JsonFileArgumentsProvider
                                         "Lack of the first matched constructors for type argument: "
                                                 + Arrays.toString(typeArguments)));
     }
-
-    private static void createDirectoryForResource(String resource) {
-        String fileDirPath = RESOURCES_PATH_PREFIX + resource.substring(0, resource.lastIndexOf("/"));
-        if (!new File(fileDirPath).mkdirs()) {
-            System.out.println("Directory already exists or could not be created: " + fileDirPath);
-        }
-    }
 }
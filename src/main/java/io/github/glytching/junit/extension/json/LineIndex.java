@@ -0,0 +1,191 @@
+package io.github.glytching.junit.extension.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import lombok.SneakyThrows;
+
+/**
+ * The offsets of the elements of a JSON Lines fixture, so that any element can be read without
+ * scanning the lines before it.
+ *
+ * <p>The index is built on first use into a file next to the fixture, {@code cases.jsonl} being
+ * indexed into {@code cases.jsonl.idx}, and mapped into memory on later runs rather than read. It
+ * records the size and modification time of the fixture it was built from and is only used while
+ * the fixture still has them, an edited fixture is indexed again. Elements are numbered as by
+ * {@link JsonElementReader}, blank lines not being elements.
+ *
+ * <p>Offsets are kept as {@code long} and elements are read from the fixture with positional
+ * reads, so a fixture may be larger than what a single mapping of it can hold. The index holds the
+ * fixture open until it is closed.
+ *
+ * @author xiaohui
+ */
+final class LineIndex implements Closeable {
+
+    static final String EXTENSION = ".idx";
+
+    private static final byte[] MAGIC = "JLI1".getBytes(UTF_8);
+
+    /** the magic, the size and modification time of the fixture, then the number of elements */
+    private static final int HEADER_SIZE = MAGIC.length + Long.BYTES + Long.BYTES + Integer.BYTES;
+
+    /** how much of the fixture is read at a time */
+    private static final int BUFFER_SIZE = 8192;
+
+    private final FileChannel content;
+
+    /** the offset of the first byte of each element */
+    private final LongBuffer offsets;
+
+    private LineIndex(FileChannel content, LongBuffer offsets) {
+        this.content = content;
+        this.offsets = offsets;
+    }
+
+    /**
+     * @param fixture the JSON Lines fixture, as a file
+     * @return the index of {@code fixture}, built if no up to date index exists yet
+     */
+    static LineIndex of(Path fixture) throws IOException {
+        Path indexFile = indexPathOf(fixture);
+        long size = Files.size(fixture);
+        long modified = Files.getLastModifiedTime(fixture).toMillis();
+        FileChannel content = FileChannel.open(fixture, StandardOpenOption.READ);
+        try {
+            LongBuffer offsets = read(indexFile, size, modified);
+            if (offsets == null) {
+                offsets = build(content);
+                write(indexFile, size, modified, offsets);
+            }
+            return new LineIndex(content, offsets);
+        } catch (IOException | RuntimeException e) {
+            content.close();
+            throw e;
+        }
+    }
+
+    static Path indexPathOf(Path fixture) {
+        return fixture.resolveSibling(fixture.getFileName() + EXTENSION);
+    }
+
+    /** @return the number of elements */
+    int size() {
+        return offsets.limit();
+    }
+
+    /** @return the raw UTF-8 bytes of the element, as {@link JsonElementReader} returns them */
+    @SneakyThrows(IOException.class)
+    byte[] element(int index) {
+        ByteArrayOutputStream element = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        for (long position = offsets.get(index); content.read(buffer, position) > 0; ) {
+            int end = 0;
+            while (end < buffer.position() && buffer.get(end) != '\n') {
+                end++;
+            }
+            element.write(buffer.array(), 0, end);
+            if (end < buffer.position()) {
+                break;
+            }
+            position += end;
+            buffer.clear();
+        }
+        return element.toByteArray();
+    }
+
+    /** Closes the fixture. */
+    @Override
+    public void close() {
+        try {
+            content.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static LongBuffer build(FileChannel content) throws IOException {
+        long[] offsets = new long[64];
+        int size = 0;
+        boolean inElement = false;
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long position = 0;
+        for (int read = content.read(buffer, 0); read > 0; read = content.read(buffer, position)) {
+            buffer.flip();
+            int from = position == 0 ? JsonElementReader.byteOrderMarkLength(buffer) : 0;
+            for (int i = from; i < buffer.limit(); i++) {
+                int current = buffer.get(i) & 0xFF;
+                if (inElement) {
+                    inElement = current != '\n';
+                } else if (!JsonElementReader.isWhitespace(current)) {
+                    if (size == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, size << 1);
+                    }
+                    offsets[size++] = position + i;
+                    inElement = true;
+                }
+            }
+            position += read;
+            buffer.clear();
+        }
+        return LongBuffer.wrap(offsets, 0, size).slice();
+    }
+
+    /** @return the offsets, or null if there is no index built from the fixture as it is */
+    private static LongBuffer read(Path indexFile, long size, long modified) {
+        if (!Files.isRegularFile(indexFile)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] magic = new byte[MAGIC.length];
+            index.get(magic);
+            if (!Arrays.equals(MAGIC, magic)
+                    || index.getLong() != size
+                    || index.getLong() != modified) {
+                return null;
+            }
+            int count = index.getInt();
+            if (index.remaining() != (long) count * Long.BYTES) {
+                return null;
+            }
+            return index.slice().asLongBuffer();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    static void write(Path indexFile, long size, long modified, LongBuffer offsets) {
+        try {
+            AtomicFiles.write(
+                    indexFile,
+                    out -> {
+                        DataOutputStream data = new DataOutputStream(out);
+                        data.write(MAGIC);
+                        data.writeLong(size);
+                        data.writeLong(modified);
+                        data.writeInt(offsets.limit());
+                        for (int i = 0; i < offsets.limit(); i++) {
+                            data.writeLong(offsets.get(i));
+                        }
+                        data.flush();
+                    });
+        } catch (IOException e) {
+            // the fixture is indexed again on its next use
+        }
+    }
+}
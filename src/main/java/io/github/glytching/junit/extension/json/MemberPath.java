@@ -0,0 +1,108 @@
+package io.github.glytching.junit.extension.json;
+
+import com.alibaba.fastjson2.JSONReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.platform.commons.PreconditionViolationException;
+
+/**
+ * A {@link io.github.glytching.junit.extension.json.annotation.JsonFileSource#path()} made of
+ * member names and array indexes only, such as {@code $.data.items[0]} or {@code $['data']}. It
+ * moves a reader onto the value it selects, skipping everything before it, so that the value can
+ * be read as it is written rather than extracted as a tree first.
+ *
+ * @author xiaohui
+ */
+final class MemberPath {
+
+    private static final Pattern SEGMENT =
+            Pattern.compile("\\.([A-Za-z_$][\\w$]*)|\\['([^']*)']|\\[(\\d+)]");
+
+    /** a {@code String} member name or an {@code Integer} array index per segment */
+    private final Object[] segments;
+
+    private MemberPath(Object[] segments) {
+        this.segments = segments;
+    }
+
+    /** @return the path, or null if it uses more than member names and array indexes */
+    static MemberPath of(String path) {
+        if (!path.startsWith("$")) {
+            return null;
+        }
+        List<Object> segments = new ArrayList<>();
+        Matcher matcher = SEGMENT.matcher(path).region(1, path.length());
+        while (matcher.lookingAt()) {
+            if (matcher.group(1) != null) {
+                segments.add(matcher.group(1));
+            } else if (matcher.group(2) != null) {
+                segments.add(matcher.group(2));
+            } else {
+                segments.add(indexOf(matcher.group(3), path));
+            }
+            matcher.region(matcher.end(), path.length());
+        }
+        return matcher.regionStart() == path.length() ? new MemberPath(segments.toArray()) : null;
+    }
+
+    private static Integer indexOf(String index, String path) {
+        try {
+            return Integer.valueOf(index);
+        } catch (NumberFormatException e) {
+            throw new PreconditionViolationException(
+                    "Array index " + index + " is out of range in path: " + path, e);
+        }
+    }
+
+    /** @return whether this path selects the whole case, as {@code $} does */
+    boolean isRoot() {
+        return segments.length == 0;
+    }
+
+    /**
+     * Moves {@code reader} onto the value this path selects.
+     *
+     * @return false if the path selects nothing, the reader is then left anywhere
+     */
+    boolean select(JSONReader reader) {
+        for (Object segment : segments) {
+            boolean found =
+                    segment instanceof String
+                            ? selectMember(reader, (String) segment)
+                            : selectElement(reader, (Integer) segment);
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean selectMember(JSONReader reader, String name) {
+        if (!reader.nextIfObjectStart()) {
+            return false;
+        }
+        while (!reader.nextIfObjectEnd()) {
+            if (name.equals(reader.readFieldName())) {
+                return true;
+            }
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    private static boolean selectElement(JSONReader reader, int index) {
+        if (!reader.nextIfMatch('[')) {
+            return false;
+        }
+        for (int i = 0; !reader.nextIfMatch(']'); i++) {
+            if (i == index) {
+                return true;
+            }
+            reader.skipValue();
+            reader.nextIfMatch(',');
+        }
+        return false;
+    }
+}
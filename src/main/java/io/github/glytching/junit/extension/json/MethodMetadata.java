@@ -0,0 +1,122 @@
+package io.github.glytching.junit.extension.json;
+
+import com.alibaba.fastjson2.JSONPath;
+import io.github.glytching.junit.extension.json.annotation.JsonFileSource;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * What {@link JsonFileArgumentsProvider} derives from a test method and its {@link
+ * JsonFileSource} alone: how cases are bound onto the parameters, the resolved resource paths and
+ * the compiled {@link JsonFileSource#path()}.
+ *
+ * <p>It is derived once per test class, method and annotation and kept for the life of the test
+ * class, so repeated and parallel invocations of a method, as well as other methods sharing the
+ * same declaration through a common super class, pay for the reflection only once.
+ *
+ * @author xiaohui
+ */
+final class MethodMetadata {
+
+    private static final String ADDRESS_DASH = JsonFileArgumentsProvider.ADDRESS_DASH;
+
+    private static final ClassValue<ConcurrentMap<Key, MethodMetadata>> BY_TEST_CLASS =
+            new ClassValue<ConcurrentMap<Key, MethodMetadata>>() {
+                @Override
+                protected ConcurrentMap<Key, MethodMetadata> computeValue(Class<?> testClass) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private final ParameterBinder binder;
+
+    private final String[] resourcePaths;
+
+    private final JSONPath projection;
+
+    private final MemberPath memberPath;
+
+    private final String casesKey;
+
+    private MethodMetadata(
+            ExtensionContext context, Class<?> testClass, Method method, JsonFileSource source) {
+        this.binder =
+                ParameterBinder.of(
+                        method, source.binding(), DeclaredParameterResolvers.of(context, method));
+        this.resourcePaths =
+                ClasspathIndex.expand(
+                        testClass.getClassLoader(), resourcePathsOf(testClass, source.resources()));
+        this.projection = source.path().isEmpty() ? null : JSONPath.of(source.path());
+        this.memberPath = source.path().isEmpty() ? null : MemberPath.of(source.path());
+        this.casesKey = source.path().isEmpty() ? binder.key() : binder.key() + source.path();
+    }
+
+    /**
+     * @param context the context of the test method, or of any test method of its class
+     * @param method the test method
+     */
+    static MethodMetadata of(ExtensionContext context, Method method, JsonFileSource source) {
+        Class<?> testClass = context.getRequiredTestClass();
+        return BY_TEST_CLASS
+                .get(testClass)
+                .computeIfAbsent(
+                        new Key(method, source),
+                        key -> new MethodMetadata(context, testClass, method, source));
+    }
+
+    ParameterBinder binder() {
+        return binder;
+    }
+
+    /** @return the absolute paths of the resources, patterns expanded; not to be modified */
+    String[] resourcePaths() {
+        return resourcePaths;
+    }
+
+    /** @return the compiled {@link JsonFileSource#path()}, or null if the whole case is bound */
+    JSONPath projection() {
+        return projection;
+    }
+
+    /**
+     * @return {@link JsonFileSource#path()} if it selects by member names and array indexes only,
+     *     otherwise null
+     */
+    MemberPath memberPath() {
+        return memberPath;
+    }
+
+    /** @return identifies how cases are bound, for use as a cache key */
+    String casesKey() {
+        return casesKey;
+    }
+
+    /** Resolves each resource name against the package of the test class. */
+    private static String[] resourcePathsOf(Class<?> testClass, String[] resourceNames) {
+        String[] resourcePaths = new String[resourceNames.length];
+        for (int i = 0; i < resourceNames.length; i++) {
+            resourcePaths[i] = resourcePathOf(testClass, resourceNames[i]);
+        }
+        return resourcePaths;
+    }
+
+    /** @return the absolute path of a resource name, resolved against the test class package */
+    static String resourcePathOf(Class<?> testClass, String resourceName) {
+        String packagePath = testClass.getPackage().getName().replace('.', '/');
+        String resourcePath = packagePath + ADDRESS_DASH + resourceName;
+        return resourceName.startsWith(ADDRESS_DASH) ? resourcePath : ADDRESS_DASH + resourcePath;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class Key {
+
+        private final Method method;
+
+        private final JsonFileSource source;
+    }
+}
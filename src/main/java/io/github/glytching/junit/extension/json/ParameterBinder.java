@@ -0,0 +1,363 @@
+package io.github.glytching.junit.extension.json;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.annotation.JSONField;
+import io.github.glytching.junit.extension.json.annotation.ParameterBinding;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import lombok.SneakyThrows;
+import org.junit.platform.commons.util.Preconditions;
+
+/**
+ * Reads a JSON case into the arguments of a test method, according to a {@link
+ * ParameterBinding}. Each value is read straight into the declared type of its parameter, with
+ * its type arguments, so no intermediate {@code JSONObject} tree is built.
+ *
+ * <p>Parameters are bound up to the first one whose type belongs to JUnit itself, such as {@code
+ * TestInfo} or {@code TestReporter}, or which a parameter resolver declared for the test
+ * resolves, such as a {@code TemporaryFolder}, leaving those to their resolvers; see {@link
+ * DeclaredParameterResolvers}.
+ *
+ * <p>Values may be read with a {@link FixtureDeserializer} instead, each is then handed over as
+ * the bytes it is written with in the case.
+ *
+ * @author xiaohui
+ */
+final class ParameterBinder {
+
+    private static final String JUNIT_API_PACKAGE = "org.junit.jupiter.api";
+
+    private final ParameterBinding binding;
+
+    private final Type[] types;
+
+    private final Object[] defaults;
+
+    private final String[] names;
+
+    private final Map<String, Integer> indexByName = new HashMap<>();
+
+    private final String key;
+
+    private ParameterBinder(ParameterBinding binding, Parameter[] parameters) {
+        this.binding = binding;
+        this.types =
+                Arrays.stream(parameters).map(Parameter::getParameterizedType).toArray(Type[]::new);
+        this.defaults = Arrays.stream(parameters).map(it -> defaultValue(it.getType())).toArray();
+        this.names = new String[parameters.length];
+        if (binding == ParameterBinding.BY_NAME) {
+            for (int i = 0; i < parameters.length; i++) {
+                names[i] = nameOf(parameters[i]);
+                indexByName.put(names[i], i);
+            }
+        }
+        this.key =
+                Arrays.stream(types)
+                        .map(Type::getTypeName)
+                        .collect(Collectors.joining(",", binding + "(", ")"));
+    }
+
+    /**
+     * @param resolved whether a parameter is resolved by some parameter resolver, and so not bound
+     */
+    static ParameterBinder of(
+            Method method, ParameterBinding binding, Predicate<Parameter> resolved) {
+        Parameter[] parameters = method.getParameters();
+        int bound = 0;
+        while (bound < parameters.length
+                && !isJUnitType(parameters[bound].getType())
+                && !resolved.test(parameters[bound])) {
+            bound++;
+        }
+        Preconditions.condition(
+                bound > 0, () -> "A @JsonFileSource method needs a parameter to bind: " + method);
+        if (binding == ParameterBinding.SINGLE) {
+            bound = 1;
+        }
+        return new ParameterBinder(binding, Arrays.copyOf(parameters, bound));
+    }
+
+    /** @return the declared types of the bound parameters */
+    Type[] types() {
+        return types;
+    }
+
+    /** @return identifies the binding and the bound types, for use as a cache key */
+    String key() {
+        return key;
+    }
+
+    /**
+     * The inverse of {@link #read(JSONReader)}.
+     *
+     * @param values one value per bound parameter
+     * @return the case which binds {@code values}, ready to be written as JSON
+     */
+    Object document(Object[] values) {
+        switch (binding) {
+            case BY_NAME:
+                Map<String, Object> document = new LinkedHashMap<>();
+                for (int i = 0; i < values.length; i++) {
+                    document.put(names[i], values[i]);
+                }
+                return document;
+            case BY_POSITION:
+                return Arrays.asList(values);
+            default:
+                return values[0];
+        }
+    }
+
+    /**
+     * @return the JSON Schema of the cases which can be read, see {@link TypeSchema}; a case bound
+     *     by name or by position may leave out parameters
+     */
+    JSONObject schema() {
+        switch (binding) {
+            case BY_NAME:
+                JSONObject properties = new JSONObject();
+                for (int i = 0; i < types.length; i++) {
+                    properties.put(names[i], TypeSchema.of(types[i]));
+                }
+                return new JSONObject()
+                        .fluentPut("type", "object")
+                        .fluentPut("properties", properties);
+            case BY_POSITION:
+                JSONArray items = new JSONArray(types.length);
+                for (Type type : types) {
+                    items.add(TypeSchema.of(type));
+                }
+                return new JSONObject().fluentPut("type", "array").fluentPut("items", items);
+            default:
+                return TypeSchema.of(types[0]);
+        }
+    }
+
+    Object[] read(JSONReader reader) {
+        return read(reader, null, null);
+    }
+
+    /**
+     * Reads the case with {@code deserializer} for each value of a type it supports, and with the
+     * reader otherwise.
+     *
+     * @param json what {@code reader} reads, or null without a deserializer
+     * @param deserializer null to read every value with the reader
+     */
+    private Object[] read(JSONReader reader, byte[] json, FixtureDeserializer deserializer) {
+        switch (binding) {
+            case BY_NAME:
+                return readByName(reader, json, deserializer);
+            case BY_POSITION:
+                return readByPosition(reader, json, deserializer);
+            default:
+                return new Object[] {readValue(reader, json, 0, deserializer)};
+        }
+    }
+
+    /**
+     * Binds a case which is already read, such as the part of a case extracted by a JSONPath, each
+     * value being converted to the declared type of its parameter, see {@link
+     * TestCaseObjectReader#convert(Object, Type)}.
+     *
+     * @param value a {@code Map} when bound by name, a {@code List} when bound by position, or null
+     *     to bind no value at all
+     */
+    Object[] bind(Object value) {
+        Object[] values = defaults.clone();
+        if (value == null) {
+            return values;
+        }
+        switch (binding) {
+            case BY_NAME:
+                if (!(value instanceof Map)) {
+                    throw new JSONException("Arguments bound by name must be an object");
+                }
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    Integer index = indexByName.get(entry.getKey());
+                    if (index != null) {
+                        values[index] = convert(entry.getValue(), index);
+                    }
+                }
+                return values;
+            case BY_POSITION:
+                if (!(value instanceof List)) {
+                    throw new JSONException("Arguments bound by position must be an array");
+                }
+                List<?> elements = (List<?>) value;
+                for (int index = 0; index < Math.min(elements.size(), types.length); index++) {
+                    values[index] = convert(elements.get(index), index);
+                }
+                return values;
+            default:
+                values[0] = convert(value, 0);
+                return values;
+        }
+    }
+
+    private Object convert(Object value, int index) {
+        return value == null ? defaults[index] : TestCaseObjectReader.convert(value, types[index]);
+    }
+
+    /**
+     * Reads a case given as JSON with {@code deserializer}, see {@link #read(byte[], MemberPath,
+     * FixtureDeserializer)}.
+     */
+    Object[] read(byte[] json, FixtureDeserializer deserializer) {
+        return read(json, null, deserializer);
+    }
+
+    /**
+     * Reads a case given as JSON with {@code deserializer} for each value of a type it supports,
+     * each such value being handed over as a slice of {@code json}, and with the built in reader
+     * otherwise. A case bound to a single parameter is handed over as it is.
+     *
+     * @param path selects the part of the case which is bound, or null to bind the whole case;
+     *     nothing is bound if it selects nothing
+     */
+    @SneakyThrows(IOException.class)
+    Object[] read(byte[] json, MemberPath path, FixtureDeserializer deserializer) {
+        boolean whole = path == null || path.isRoot();
+        if (whole && binding == ParameterBinding.SINGLE && deserializer.supports(types[0])) {
+            return new Object[] {deserializer.deserialize(json, types[0])};
+        }
+        try (JSONReader reader =
+                JSONReader.of(
+                        json,
+                        0,
+                        json.length,
+                        StandardCharsets.UTF_8,
+                        TestCaseObjectReader.context())) {
+            if (path != null && !path.select(reader)) {
+                return defaults.clone();
+            }
+            return read(reader, json, deserializer);
+        }
+    }
+
+    @SneakyThrows(IOException.class)
+    private Object readValue(
+            JSONReader reader, byte[] json, int index, FixtureDeserializer deserializer) {
+        if (deserializer == null || !deserializer.supports(types[index])) {
+            return reader.read(types[index]);
+        }
+        return deserializer.deserialize(rawValueOf(reader, json), types[index]);
+    }
+
+    /**
+     * @param json what {@code reader} reads, as text
+     * @return the bytes the value at {@code reader} is written with, the reader being moved past it
+     */
+    private static byte[] rawValueOf(JSONReader reader, byte[] json) {
+        // fastjson2 keeps the offset one byte past the current character, the first of the value
+        int start = reader.getOffset() - 1;
+        if (start < 0 || start >= json.length || !isValueStart(json[start])) {
+            throw new JSONException(reader.info("Cannot locate the value being read"));
+        }
+        int end = JsonElementReader.endOfValue(json, start);
+        reader.skipValue();
+        return Arrays.copyOfRange(json, start, end);
+    }
+
+    private static boolean isValueStart(byte first) {
+        return first == '{'
+                || first == '['
+                || first == '"'
+                || first == '-'
+                || first >= '0' && first <= '9'
+                || first == 't'
+                || first == 'f'
+                || first == 'n';
+    }
+
+    private Object[] readByName(JSONReader reader, byte[] json, FixtureDeserializer deserializer) {
+        Object[] values = defaults.clone();
+        if (!reader.nextIfObjectStart()) {
+            throw new JSONException(reader.info("Arguments bound by name must be an object"));
+        }
+        while (!reader.nextIfObjectEnd()) {
+            Integer index = indexByName.get(reader.readFieldName());
+            if (index == null) {
+                reader.skipValue();
+            } else {
+                values[index] = readValue(reader, json, index, deserializer);
+            }
+        }
+        return values;
+    }
+
+    private Object[] readByPosition(
+            JSONReader reader, byte[] json, FixtureDeserializer deserializer) {
+        Object[] values = defaults.clone();
+        if (reader.isJSONB()) {
+            // a JSONB array is prefixed with its size rather than delimited
+            if (!reader.isArray()) {
+                throw new JSONException(
+                        reader.info("Arguments bound by position must be an array"));
+            }
+            int size = reader.startArray();
+            for (int index = 0; index < size; index++) {
+                readElement(reader, json, values, index, deserializer);
+            }
+            return values;
+        }
+        if (!reader.nextIfMatch('[')) {
+            throw new JSONException(reader.info("Arguments bound by position must be an array"));
+        }
+        for (int index = 0; !reader.nextIfMatch(']'); index++) {
+            readElement(reader, json, values, index, deserializer);
+            reader.nextIfMatch(',');
+        }
+        return values;
+    }
+
+    private void readElement(
+            JSONReader reader,
+            byte[] json,
+            Object[] values,
+            int index,
+            FixtureDeserializer deserializer) {
+        if (index < types.length) {
+            values[index] = readValue(reader, json, index, deserializer);
+        } else {
+            reader.skipValue();
+        }
+    }
+
+    private static String nameOf(Parameter parameter) {
+        JSONField jsonField = parameter.getAnnotation(JSONField.class);
+        if (jsonField != null && !jsonField.name().isEmpty()) {
+            return jsonField.name();
+        }
+        Preconditions.condition(
+                parameter.isNamePresent(),
+                () ->
+                        "Cannot bind "
+                                + parameter
+                                + " by name, either compile with -parameters or annotate it with"
+                                + " @JSONField(name = ...)");
+        return parameter.getName();
+    }
+
+    private static boolean isJUnitType(Class<?> type) {
+        return type.getName().startsWith(JUNIT_API_PACKAGE);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+    }
+}
@@ -0,0 +1,185 @@
+package io.github.glytching.junit.extension.json;
+
+import static io.github.glytching.junit.extension.util.ExtensionUtil.getConfigurationParameter;
+
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONReader;
+import java.lang.reflect.Type;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * A bounded cache of parsed fixtures shared by every {@link JsonFileArgumentsProvider} in a test
+ * run, so that a fixture used by many test methods is parsed once. It is only used by methods
+ * which opt in with {@link
+ * io.github.glytching.junit.extension.json.annotation.JsonFileSource#cache()}.
+ *
+ * <p>Entries are keyed by resource path, target types and a digest of the resource content, an
+ * edited fixture is therefore never served stale. Parsed arguments are held as JSONB snapshots
+ * and each hit materialises fresh copies from them, so a test which mutates its arguments cannot
+ * affect any other test. The cache is bounded by the total size of its snapshots, least recently
+ * used entries are evicted first. The bound defaults to 64 MB and can be changed with the {@value
+ * #MAX_BYTES_KEY} configuration parameter.
+ *
+ * @author xiaohui
+ */
+final class ParsedFixtureCache {
+
+    static final String MAX_BYTES_KEY = "junit.extensions.json.cache.maxBytes";
+
+    static final String HITS_REPORT_KEY = "JSON fixture cache hits";
+
+    static final String MISSES_REPORT_KEY = "JSON fixture cache misses";
+
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final long maxBytes;
+
+    private final LinkedHashMap<Key, Snapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long weight;
+
+    ParsedFixtureCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** @return the cache held in the root store of the given context, created on first use */
+    static ParsedFixtureCache of(ExtensionContext context) {
+        return context
+                .getRoot()
+                .getStore(ExtensionContext.Namespace.create(ParsedFixtureCache.class))
+                .getOrComputeIfAbsent(
+                        ParsedFixtureCache.class,
+                        key ->
+                                new ParsedFixtureCache(
+                                        getConfigurationParameter(context, MAX_BYTES_KEY)
+                                                .map(Long::parseLong)
+                                                .orElse(DEFAULT_MAX_BYTES)),
+                        ParsedFixtureCache.class);
+    }
+
+    /**
+     * Returns the arguments parsed from {@code content}, parsing them with {@code parser} only if
+     * no snapshot of the same resource, types and content is cached.
+     *
+     * @param statistics counts the hits and misses of the caller
+     * @param typesKey identifies the types the content is parsed into
+     * @param types the types of the parsed arguments, in order
+     */
+    Object[] get(
+            Statistics statistics,
+            String resource,
+            String typesKey,
+            Type[] types,
+            byte[] content,
+            Function<byte[], Object[]> parser) {
+        Key key = new Key(resource, typesKey, digest(content));
+        Snapshot snapshot = lookup(key);
+        if (snapshot != null) {
+            statistics.hits.incrementAndGet();
+            return snapshot.restore(types);
+        }
+        statistics.misses.incrementAndGet();
+        Object[] values = parser.apply(content);
+        store(key, new Snapshot(values));
+        return values;
+    }
+
+    private synchronized Snapshot lookup(Key key) {
+        return snapshots.get(key);
+    }
+
+    private synchronized void store(Key key, Snapshot snapshot) {
+        if (snapshot.weight > maxBytes) {
+            return;
+        }
+        Snapshot replaced = snapshots.put(key, snapshot);
+        weight += snapshot.weight - (replaced == null ? 0 : replaced.weight);
+        Iterator<Snapshot> eldest = snapshots.values().iterator();
+        while (weight > maxBytes) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+        }
+    }
+
+    /** @return a digest of {@code content} */
+    @SneakyThrows
+    static String digest(byte[] content) {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(content);
+        return Base64.getEncoder().encodeToString(digest.digest());
+    }
+
+    /** The hits and misses of the lookups made for one test method. */
+    static final class Statistics {
+
+        private final AtomicLong hits = new AtomicLong();
+
+        private final AtomicLong misses = new AtomicLong();
+
+        /** Publishes the hits and misses counted so far on the context of the test method. */
+        void publish(ExtensionContext context) {
+            Map<String, String> entries = new LinkedHashMap<>();
+            entries.put(HITS_REPORT_KEY, Long.toString(hits.get()));
+            entries.put(MISSES_REPORT_KEY, Long.toString(misses.get()));
+            context.publishReportEntry(entries);
+        }
+
+        long hits() {
+            return hits.get();
+        }
+
+        long misses() {
+            return misses.get();
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class Key {
+
+        private final String resource;
+
+        private final String typesKey;
+
+        private final String digest;
+    }
+
+    /** The JSONB form of each parsed argument, {@code null} arguments are kept as {@code null}. */
+    private static final class Snapshot {
+
+        private final byte[][] values;
+
+        private final long weight;
+
+        Snapshot(Object[] values) {
+            this.values = new byte[values.length][];
+            long size = 0;
+            for (int i = 0; i < values.length; i++) {
+                this.values[i] = values[i] == null ? null : JSONB.toBytes(values[i]);
+                size += this.values[i] == null ? 0 : this.values[i].length;
+            }
+            this.weight = size;
+        }
+
+        Object[] restore(Type[] types) {
+            Object[] restored = new Object[values.length];
+            for (int i = 0; i < values.length; i++) {
+                restored[i] = values[i] == null ? null : read(values[i], types[i]);
+            }
+            return restored;
+        }
+
+        private static Object read(byte[] value, Type type) {
+            try (JSONReader reader = JSONReader.ofJSONB(value, TestCaseObjectReader.context())) {
+                return reader.read(type);
+            }
+        }
+    }
+}
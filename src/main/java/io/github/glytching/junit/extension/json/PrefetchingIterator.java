@@ -0,0 +1,79 @@
+package io.github.glytching.junit.extension.json;
+
+import io.github.glytching.junit.extension.util.ThreadUtils;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+import lombok.SneakyThrows;
+
+/**
+ * Computes the values of an ordered sequence of tasks ahead of their consumption, at most {@code
+ * window} tasks being outstanding at any time. Values are returned in the order of the tasks,
+ * whatever order the tasks complete in.
+ *
+ * <p>Tasks run on virtual threads where the runtime provides them and otherwise on a pool of
+ * {@code window} daemon threads. Either way the window bounds how many tasks run at once.
+ *
+ * @author xiaohui
+ */
+final class PrefetchingIterator<T> implements Iterator<T>, AutoCloseable {
+
+    private final Iterator<Supplier<T>> tasks;
+
+    private final int window;
+
+    private final ExecutorService executor;
+
+    private final Deque<Future<T>> pending = new ArrayDeque<>();
+
+    PrefetchingIterator(Iterator<Supplier<T>> tasks, int window) {
+        this.tasks = tasks;
+        this.window = window;
+        this.executor = newExecutor(window);
+        fill();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !pending.isEmpty();
+    }
+
+    @Override
+    @SneakyThrows
+    public T next() {
+        Future<T> head = pending.poll();
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        try {
+            return head.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } finally {
+            fill();
+        }
+    }
+
+    @Override
+    public void close() {
+        pending.forEach(future -> future.cancel(true));
+        pending.clear();
+        executor.shutdownNow();
+    }
+
+    private void fill() {
+        while (pending.size() < window && tasks.hasNext()) {
+            pending.add(executor.submit(tasks.next()::get));
+        }
+    }
+
+    /** Prefers a virtual thread per task, as provided by Java 21 onwards. */
+    private static ExecutorService newExecutor(int threads) {
+        return ThreadUtils.newVirtualThreadPerTaskExecutor()
+                .orElseGet(
+                        () -> ThreadUtils.newDaemonThreadPool(threads, "json-fixture-prefetch"));
+    }
+}
@@ -0,0 +1,370 @@
+package io.github.glytching.junit.extension.json;
+
+import io.github.glytching.junit.extension.util.ReflectionUtils;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Assertions;
+import org.junit.platform.commons.util.Preconditions;
+
+/**
+ * Compares an expected output with an actual one by walking both object graphs together, and
+ * reports where they differ as paths such as {@code $.items[2].name}.
+ *
+ * <p>Instances of application classes are compared field by field, using the fields found by
+ * {@link ReflectionUtils#getInstanceFields(Class)}, static and transient fields aside; lists and
+ * arrays element by element, maps entry by entry, sets by membership and numbers by value whatever
+ * their boxed type, so that {@code 1} equals {@code 1L} and {@code 0.10} equals {@code 0.1}. A map,
+ * such as a {@code JSONObject}, is compared with an instance of an application class by field name.
+ * Any other value, such as a string or a date, is compared with {@code equals}.
+ *
+ * <p>The walk stops as soon as the maximum number of differences has been found. A pair of objects
+ * is compared once only, so cyclic and shared references are walked once, and neither graph is
+ * ever turned into a string: only the differing leaf values end up in the report.
+ *
+ * @author xiaohui
+ */
+public final class StructuralDiff {
+
+    /** The maximum number of differences reported by {@link #assertEquals(Object, Object)}. */
+    public static final int DEFAULT_LIMIT = 20;
+
+    private final int limit;
+
+    private final List<Difference> differences = new ArrayList<>();
+
+    /** the actual objects each expected object has been compared with */
+    private final Map<Object, Set<Object>> compared = new IdentityHashMap<>();
+
+    /** the pairs left to compare, the next one on top */
+    private final Deque<Pair> pending = new ArrayDeque<>();
+
+    private StructuralDiff(int limit) {
+        Preconditions.condition(limit > 0, () -> "The limit of differences must be positive");
+        this.limit = limit;
+    }
+
+    /**
+     * @param limit the maximum number of differences to find
+     * @return the differences between {@code expected} and {@code actual}, in the order of the
+     *     expected graph; empty if they are equal
+     */
+    public static List<Difference> diff(Object expected, Object actual, int limit) {
+        StructuralDiff diff = new StructuralDiff(limit);
+        diff.walk(expected, actual);
+        return Collections.unmodifiableList(diff.differences);
+    }
+
+    /** Asserts that both graphs are equal, reporting up to {@value #DEFAULT_LIMIT} differences. */
+    public static void assertEquals(Object expected, Object actual) {
+        assertEquals(expected, actual, DEFAULT_LIMIT);
+    }
+
+    /**
+     * Asserts that both graphs are equal.
+     *
+     * @param limit the maximum number of differences to report
+     */
+    public static void assertEquals(Object expected, Object actual, int limit) {
+        // one more than reported, to know whether there are more
+        StructuralDiff diff = new StructuralDiff(limit + 1);
+        diff.walk(expected, actual);
+        if (diff.differences.isEmpty()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder("Expected and actual differ at:");
+        diff.differences.stream()
+                .limit(limit)
+                .forEach(difference -> message.append("\n  ").append(difference));
+        if (diff.differences.size() > limit) {
+            message.append("\n  ... and more, only the first ").append(limit).append(" reported");
+        }
+        Assertions.fail(message.toString());
+    }
+
+    private void walk(Object expected, Object actual) {
+        pending.push(new Pair(null, "$", expected, actual));
+        while (!pending.isEmpty() && differences.size() < limit) {
+            compare(pending.pop());
+        }
+    }
+
+    private void compare(Pair pair) {
+        Object expected = pair.expected;
+        Object actual = pair.actual;
+        if (expected == actual) {
+            return;
+        }
+        if (expected == null || actual == null) {
+            report(pair, describe(expected), describe(actual));
+        } else if (expected instanceof Number && actual instanceof Number) {
+            if (!equalNumbers((Number) expected, (Number) actual)) {
+                report(pair, describe(expected), describe(actual));
+            }
+        } else if (isValue(expected) || isValue(actual)) {
+            if (!expected.equals(actual)) {
+                report(pair, describe(expected), describe(actual));
+            }
+        } else if (compared.computeIfAbsent(expected, it -> newIdentitySet()).add(actual)) {
+            // not compared yet, nor being compared further up a cycle
+            compareContents(pair);
+        }
+    }
+
+    private void compareContents(Pair pair) {
+        Object expected = pair.expected;
+        Object actual = pair.actual;
+        if (isSequence(expected) && isSequence(actual)) {
+            compareSequences(pair);
+        } else if (expected instanceof Set && actual instanceof Set) {
+            compareSets(pair, (Set<?>) expected, (Set<?>) actual);
+        } else if (expected instanceof Map && actual instanceof Map) {
+            compareMaps(pair, (Map<?, ?>) expected, (Map<?, ?>) actual);
+        } else if (expected.getClass() == actual.getClass() && !isContainer(expected)) {
+            compareFields(pair);
+        } else if (expected instanceof Map && isBean(actual)) {
+            compareMaps(pair, (Map<?, ?>) expected, fieldsOf(actual));
+        } else if (isBean(expected) && actual instanceof Map) {
+            compareMaps(pair, fieldsOf(expected), (Map<?, ?>) actual);
+        } else {
+            report(pair, describe(expected), describe(actual));
+        }
+    }
+
+    private void compareSequences(Pair pair) {
+        List<Object> expected = elementsOf(pair.expected);
+        List<Object> actual = elementsOf(pair.actual);
+        if (expected.size() != actual.size()) {
+            report(pair, expected.size() + " elements", actual.size() + " elements");
+        }
+        for (int i = Math.min(expected.size(), actual.size()) - 1; i >= 0; i--) {
+            pending.push(new Pair(pair, i, expected.get(i), actual.get(i)));
+        }
+    }
+
+    private void compareSets(Pair pair, Set<?> expected, Set<?> actual) {
+        for (Object element : expected) {
+            if (!actual.contains(element)) {
+                report(pair, "an element " + describe(element), "none");
+            }
+        }
+        for (Object element : actual) {
+            if (!expected.contains(element)) {
+                report(pair, "no such element", describe(element));
+            }
+        }
+    }
+
+    private void compareMaps(Pair pair, Map<?, ?> expected, Map<?, ?> actual) {
+        List<Pair> entries = new ArrayList<>(expected.size());
+        for (Map.Entry<?, ?> entry : expected.entrySet()) {
+            Object key = entry.getKey();
+            if (actual.containsKey(key)) {
+                entries.add(new Pair(pair, key, entry.getValue(), actual.get(key)));
+            } else {
+                report(new Pair(pair, key, null, null), describe(entry.getValue()), "no entry");
+            }
+        }
+        for (Map.Entry<?, ?> entry : actual.entrySet()) {
+            if (!expected.containsKey(entry.getKey())) {
+                Pair unexpected = new Pair(pair, entry.getKey(), null, null);
+                report(unexpected, "no entry", describe(entry.getValue()));
+            }
+        }
+        pushAll(entries);
+    }
+
+    @SneakyThrows(IllegalAccessException.class)
+    private void compareFields(Pair pair) {
+        List<Field> fields = ReflectionUtils.getInstanceFields(pair.expected.getClass());
+        List<Pair> values = new ArrayList<>(fields.size());
+        for (Field field : fields) {
+            Object expected = field.get(pair.expected);
+            values.add(new Pair(pair, field.getName(), expected, field.get(pair.actual)));
+        }
+        pushAll(values);
+    }
+
+    /** @return the field values of a bean by field name, to compare it with a map */
+    @SneakyThrows(IllegalAccessException.class)
+    private static Map<String, Object> fieldsOf(Object bean) {
+        List<Field> fields = ReflectionUtils.getInstanceFields(bean.getClass());
+        Map<String, Object> values = new LinkedHashMap<>(fields.size() * 2);
+        for (Field field : fields) {
+            values.put(field.getName(), field.get(bean));
+        }
+        return values;
+    }
+
+    /** Pushes the pairs so that they are popped in their order. */
+    private void pushAll(List<Pair> pairs) {
+        for (int i = pairs.size() - 1; i >= 0; i--) {
+            pending.push(pairs.get(i));
+        }
+    }
+
+    private void report(Pair pair, String expected, String actual) {
+        if (differences.size() < limit) {
+            differences.add(new Difference(pair.path(), expected, actual));
+        }
+    }
+
+    private static boolean equalNumbers(Number expected, Number actual) {
+        if (expected.getClass() == actual.getClass() && !(expected instanceof BigDecimal)) {
+            return expected.equals(actual);
+        }
+        BigDecimal expectedValue = toBigDecimal(expected);
+        BigDecimal actualValue = toBigDecimal(actual);
+        if (expectedValue == null || actualValue == null) {
+            // NaN or infinite
+            return Double.compare(expected.doubleValue(), actual.doubleValue()) == 0;
+        }
+        return expectedValue.compareTo(actualValue) == 0;
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        }
+        if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        }
+        if (number instanceof Double || number instanceof Float) {
+            double value = number.doubleValue();
+            // the shortest decimal of a float, so that 0.1f equals 0.1
+            return Double.isNaN(value) || Double.isInfinite(value)
+                    ? null
+                    : new BigDecimal(number.toString());
+        }
+        return BigDecimal.valueOf(number.longValue());
+    }
+
+    /** @return whether the value is compared with {@code equals} rather than walked */
+    private static boolean isValue(Object value) {
+        return value instanceof CharSequence
+                || value instanceof Boolean
+                || value instanceof Character
+                || value instanceof Enum
+                || (ReflectionUtils.isJdkClass(value.getClass()) && !isContainer(value));
+    }
+
+    private static boolean isBean(Object value) {
+        return !ReflectionUtils.isJdkClass(value.getClass())
+                && !isContainer(value)
+                && !isValue(value);
+    }
+
+    private static boolean isContainer(Object value) {
+        return isSequence(value) || value instanceof Set || value instanceof Map;
+    }
+
+    private static boolean isSequence(Object value) {
+        return value instanceof List || value.getClass().isArray();
+    }
+
+    private static List<Object> elementsOf(Object sequence) {
+        if (sequence instanceof List) {
+            @SuppressWarnings("unchecked")
+            List<Object> list = (List<Object>) sequence;
+            // a linked list is copied, rather than walked in quadratic time
+            return list instanceof RandomAccess ? list : new ArrayList<>(list);
+        }
+        int length = Array.getLength(sequence);
+        List<Object> elements = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            elements.add(Array.get(sequence, i));
+        }
+        return elements;
+    }
+
+    /** @return a short description of the value, its content for a leaf value only */
+    private static String describe(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof CharSequence || value instanceof Character) {
+            return '"' + value.toString() + '"';
+        }
+        if (value instanceof Number || isValue(value)) {
+            return String.valueOf(value);
+        }
+        String type = value.getClass().getSimpleName();
+        if (value instanceof Collection) {
+            return type + " of " + ((Collection<?>) value).size() + " elements";
+        }
+        if (value instanceof Map) {
+            return type + " of " + ((Map<?, ?>) value).size() + " entries";
+        }
+        if (value.getClass().isArray()) {
+            return value.getClass().getComponentType().getSimpleName()
+                    + "["
+                    + Array.getLength(value)
+                    + "]";
+        }
+        return "a " + type;
+    }
+
+    private static Set<Object> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /** A difference between the expected and the actual graph. */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Difference {
+
+        /** where the graphs differ, such as {@code $.items[2].name} */
+        private final String path;
+
+        /** a description of the expected value */
+        private final String expected;
+
+        /** a description of the actual value */
+        private final String actual;
+
+        @Override
+        public String toString() {
+            return path + ": expected " + expected + " but was " + actual;
+        }
+    }
+
+    /**
+     * Two values at the same place in both graphs. The path is only rendered for differences.
+     */
+    @RequiredArgsConstructor
+    private static final class Pair {
+
+        private final Pair parent;
+
+        /** the field name or map key, or the index within a sequence */
+        private final Object segment;
+
+        private final Object expected;
+
+        private final Object actual;
+
+        String path() {
+            Deque<Object> segments = new ArrayDeque<>();
+            for (Pair current = this; current != null; current = current.parent) {
+                segments.push(current.segment);
+            }
+            StringBuilder path = new StringBuilder();
+            for (Object segment : segments) {
+                if (segment instanceof Integer) {
+                    path.append('[').append(segment).append(']');
+                } else if (path.length() == 0) {
+                    path.append(segment);
+                } else {
+                    path.append('.').append(segment);
+                }
+            }
+            return path.toString();
+        }
+    }
+}
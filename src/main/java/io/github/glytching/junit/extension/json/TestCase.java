@@ -1,12 +1,22 @@
 package io.github.glytching.junit.extension.json;
 
-import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
 import com.alibaba.fastjson2.TypeReference;
 import io.github.glytching.junit.extension.util.TypeUtils;
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 /**
+ * When {@code input} or {@code output} is held as a {@code JSONObject}/{@code JSONArray} tree, the
+ * typed getters convert it straight from the tree once per requested type and return that same
+ * converted value on every later call, from any thread.
+ *
  * @author xiaohui
  */
 @RequiredArgsConstructor
@@ -23,17 +33,31 @@ public class TestCase<IN, OUT> {
      */
     private final OUT output;
 
+    /**
+     * converted input by requested type
+     */
+    @Getter(AccessLevel.NONE)
+    private final transient ConcurrentMap<Type, Object> inputs = new ConcurrentHashMap<>();
+
+    /**
+     * converted output by requested type
+     */
+    @Getter(AccessLevel.NONE)
+    private final transient ConcurrentMap<Type, Object> outputs = new ConcurrentHashMap<>();
+
+    /**
+     * receives the actual output while golden outputs are recorded
+     */
+    @Getter(AccessLevel.NONE)
+    private transient volatile Consumer<Object> recorder;
+
     /**
      *
      * @param inType one level type
      * @return {@link IN}
      */
     public IN getInput(Class<IN> inType) {
-        if(TypeUtils.isJsonType(input)){
-            return JSON.parseObject(JSON.toJSONString(input),inType) ;
-        }else {
-            return input ;
-        }
+        return convert(input, inputs, inType);
     }
 
     /**
@@ -42,11 +66,7 @@ public class TestCase<IN, OUT> {
      * @return {@link IN}
      */
     public IN getInput(TypeReference<IN> typeReference) {
-        if(TypeUtils.isJsonType(input)){
-            return JSON.parseObject(JSON.toJSONString(input),typeReference) ;
-        }else {
-            return input ;
-        }
+        return convert(input, inputs, typeReference.getType());
     }
 
     /**
@@ -55,11 +75,7 @@ public class TestCase<IN, OUT> {
      * @return {@link OUT}
      */
     public OUT getOutput(Class<OUT> outType) {
-        if(TypeUtils.isJsonType(output)){
-            return JSON.parseObject(JSON.toJSONString(output),outType) ;
-        }else {
-            return output ;
-        }
+        return convert(output, outputs, outType);
     }
 
     /**
@@ -68,11 +84,49 @@ public class TestCase<IN, OUT> {
      * @return {@link OUT}
      */
     public OUT getOutput(TypeReference<OUT> typeReference) {
-        if(TypeUtils.isJsonType(output)){
-            return JSON.parseObject(JSON.toJSONString(output),typeReference) ;
-        }else {
-            return output;
+        return convert(output, outputs, typeReference.getType());
+    }
+
+    /**
+     * Hands the actual output over to be written back as the expected output of this case, when
+     * golden outputs are recorded with {@code -Djunit.extensions.json.record=true}; does nothing
+     * otherwise. Call it before asserting on {@code actual}, so a failing assertion does not stop
+     * the output being recorded.
+     *
+     * @param actual the output the code under test produced for {@link #getInput()}
+     */
+    public void record(OUT actual) {
+        Consumer<Object> current = recorder;
+        if (current != null) {
+            current.accept(actual);
         }
     }
 
+    /**
+     * Records {@code actual}, see {@link #record(Object)}, then asserts that it is structurally
+     * equal to the expected output, reporting each differing path; see {@link StructuralDiff}. An
+     * expected output held as a JSON tree is first converted to the class of {@code actual}.
+     *
+     * @param actual the output the code under test produced for {@link #getInput()}
+     */
+    public void assertOutput(OUT actual) {
+        record(actual);
+        OUT expected =
+                actual == null ? output : convert(output, outputs, actual.getClass());
+        StructuralDiff.assertEquals(expected, actual);
+    }
+
+    void recordTo(Consumer<Object> recorder) {
+        this.recorder = recorder;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T convert(T value, ConcurrentMap<Type, Object> converted, Type type) {
+        if (!TypeUtils.isJsonType(value)) {
+            return value;
+        }
+        return (T) converted.computeIfAbsent(type, key -> value instanceof JSONObject
+                ? ((JSONObject) value).to(key)
+                : ((JSONArray) value).to(key));
+    }
 }
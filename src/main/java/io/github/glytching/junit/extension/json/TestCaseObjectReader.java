@@ -0,0 +1,129 @@
+package io.github.glytching.junit.extension.json;
+
+import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.modules.ObjectReaderModule;
+import com.alibaba.fastjson2.reader.ObjectReader;
+import com.alibaba.fastjson2.reader.ObjectReaderProvider;
+import com.alibaba.fastjson2.util.TypeUtils;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Reads a parameterized {@link TestCase} with its actual type arguments.
+ *
+ * <p>fastjson2 creates a {@link TestCase} through its constructor, whose parameters are declared as
+ * the type variables {@code IN} and {@code OUT}, so on its own it reads {@code input} and {@code
+ * output} as {@code JSONObject}/{@code JSONArray} trees whatever the declared type. This reader
+ * reads each of them straight into its type argument instead, e.g. {@code TestCase<List<Order>,
+ * Map<String, Money>>} yields a list of {@code Order} and a map of {@code Money}.
+ *
+ * <p>The reader is known to a provider of its own only, used by the readers of fixtures through
+ * {@link #context()}, so that fastjson2 as used by the code under test reads as it always does.
+ *
+ * @author xiaohui
+ */
+final class TestCaseObjectReader implements ObjectReader<TestCase<Object, Object>> {
+
+    private static final ObjectReaderModule MODULE =
+            new ObjectReaderModule() {
+                @Override
+                public ObjectReader getObjectReader(ObjectReaderProvider provider, Type type) {
+                    if (type instanceof ParameterizedType
+                            && ((ParameterizedType) type).getRawType() == TestCase.class) {
+                        Type[] typeArguments = ((ParameterizedType) type).getActualTypeArguments();
+                        return new TestCaseObjectReader(typeArguments[0], typeArguments[1]);
+                    }
+                    return null;
+                }
+            };
+
+    private static final ObjectReaderProvider PROVIDER = new ObjectReaderProvider();
+
+    static {
+        PROVIDER.register(MODULE);
+    }
+
+    private final Type inputType;
+
+    private final Type outputType;
+
+    private TestCaseObjectReader(Type inputType, Type outputType) {
+        this.inputType = concrete(inputType);
+        this.outputType = concrete(outputType);
+    }
+
+    /** @return a context for a reader of fixtures, whose provider knows this reader */
+    static JSONReader.Context context() {
+        return new JSONReader.Context(PROVIDER);
+    }
+
+    @Override
+    public TestCase<Object, Object> readObject(
+            JSONReader jsonReader, Type fieldType, Object fieldName, long features) {
+        if (jsonReader.nextIfNull()) {
+            return null;
+        }
+        if (!jsonReader.nextIfObjectStart()) {
+            throw new JSONException(jsonReader.info("TestCase must be a JSON object"));
+        }
+        Object input = null;
+        Object output = null;
+        while (!jsonReader.nextIfObjectEnd()) {
+            String name = jsonReader.readFieldName();
+            if ("input".equals(name)) {
+                input = jsonReader.read(inputType);
+            } else if ("output".equals(name)) {
+                output = jsonReader.read(outputType);
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        return new TestCase<>(input, output);
+    }
+
+    /** Converts an {@code input} and {@code output} already read, see {@link #convert}. */
+    @Override
+    @SuppressWarnings("rawtypes")
+    public TestCase<Object, Object> createInstance(Map map, long features) {
+        return new TestCase<>(
+                convert(map.get("input"), inputType), convert(map.get("output"), outputType));
+    }
+
+    @Override
+    public TestCase<Object, Object> readJSONBObject(
+            JSONReader jsonReader, Type fieldType, Object fieldName, long features) {
+        return readObject(jsonReader, fieldType, fieldName, features);
+    }
+
+    /**
+     * Converts a value which is already read, such as a {@code JSONObject}, to {@code type} as the
+     * readers of fixtures would have read it, e.g. the members of an object into the fields of a
+     * bean and the elements of an array into the type argument of a list.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    static Object convert(Object value, Type type) {
+        if (value instanceof Map) {
+            return PROVIDER.getObjectReader(type).createInstance((Map) value, 0L);
+        }
+        if (value instanceof Collection) {
+            return PROVIDER.getObjectReader(type).createInstance((Collection) value);
+        }
+        return TypeUtils.cast(value, type);
+    }
+
+    /** Wildcards and type variables are read as their upper bound. */
+    private static Type concrete(Type type) {
+        if (type instanceof WildcardType) {
+            return concrete(((WildcardType) type).getUpperBounds()[0]);
+        }
+        if (type instanceof TypeVariable) {
+            return concrete(((TypeVariable<?>) type).getBounds()[0]);
+        }
+        return type;
+    }
+}
@@ -0,0 +1,180 @@
+package io.github.glytching.junit.extension.json;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.annotation.JSONField;
+import io.github.glytching.junit.extension.util.ReflectionUtils;
+import java.lang.reflect.*;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Derives a JSON Schema from a Java type, describing the JSON documents which can be read into it.
+ *
+ * <p>The schema checks the shape of a document only, whether each value is an object, an array, a
+ * number and so on, as that is what a document has to get right to be read at all. It is as lenient
+ * as reading is: every value may be {@code null}, numbers and booleans may be given as strings,
+ * anything may be read into a string, and properties the type does not declare are allowed. Types
+ * it knows nothing about, such as dates, type variables and types nested within themselves, accept
+ * any value.
+ *
+ * @author xiaohui
+ */
+final class TypeSchema {
+
+    private static final String TYPE = "type";
+
+    private final Set<Type> inProgress = new HashSet<>();
+
+    private TypeSchema() {}
+
+    /** @return the schema of the documents which can be read into {@code type} */
+    static JSONObject of(Type type) {
+        return new TypeSchema().schemaOf(type, Collections.emptyMap());
+    }
+
+    private JSONObject schemaOf(Type type, Map<TypeVariable<?>, Type> variables) {
+        if (type instanceof TypeVariable) {
+            Type bound = variables.get(type);
+            return bound == null ? any() : schemaOf(bound, Collections.emptyMap());
+        }
+        if (type instanceof GenericArrayType) {
+            Type component = ((GenericArrayType) type).getGenericComponentType();
+            return array(schemaOf(component, variables));
+        }
+        Class<?> raw = rawTypeOf(type);
+        if (raw == null || !inProgress.add(type)) {
+            // wildcards, and a type within itself
+            return any();
+        }
+        try {
+            return schemaOf(raw, type, variables);
+        } finally {
+            inProgress.remove(type);
+        }
+    }
+
+    private JSONObject schemaOf(Class<?> raw, Type type, Map<TypeVariable<?>, Type> variables) {
+        Class<?> boxed = boxed(raw);
+        if (boxed == Boolean.class) {
+            return types("boolean", "integer", "string");
+        }
+        if (boxed == Byte.class
+                || boxed == Short.class
+                || boxed == Integer.class
+                || boxed == Long.class
+                || boxed == BigInteger.class) {
+            return types("integer", "string");
+        }
+        if (Number.class.isAssignableFrom(boxed)) {
+            return types("number", "string");
+        }
+        if (raw.isEnum()) {
+            return types("string", "integer");
+        }
+        if (raw.isArray()) {
+            return array(schemaOf(raw.getComponentType(), variables));
+        }
+        if (Collection.class.isAssignableFrom(raw)) {
+            return array(schemaOf(typeArgumentOf(type, 0), variables));
+        }
+        if (Map.class.isAssignableFrom(raw)) {
+            return nullable(
+                    new JSONObject()
+                            .fluentPut(TYPE, "object")
+                            .fluentPut(
+                                    "additionalProperties",
+                                    schemaOf(typeArgumentOf(type, 1), variables)));
+        }
+        if (raw == Object.class || ReflectionUtils.isJdkClass(raw)) {
+            // strings, dates and the like, which read from various JSON values
+            return any();
+        }
+        return bean(raw, bindingsOf(raw, type));
+    }
+
+    /** @return the schema of an object with a property for each field of {@code type} */
+    private JSONObject bean(Class<?> type, Map<TypeVariable<?>, Type> variables) {
+        JSONObject properties = new JSONObject();
+        for (Field field : ReflectionUtils.getInstanceFields(type)) {
+            JSONField jsonField = field.getAnnotation(JSONField.class);
+            if (jsonField != null && !jsonField.deserialize()) {
+                continue;
+            }
+            String name =
+                    jsonField != null && !jsonField.name().isEmpty()
+                            ? jsonField.name()
+                            : field.getName();
+            properties.put(name, schemaOf(field.getGenericType(), variables));
+        }
+        return nullable(
+                new JSONObject().fluentPut(TYPE, "object").fluentPut("properties", properties));
+    }
+
+    private static Map<TypeVariable<?>, Type> bindingsOf(Class<?> raw, Type type) {
+        if (!(type instanceof ParameterizedType)) {
+            return Collections.emptyMap();
+        }
+        TypeVariable<?>[] parameters = raw.getTypeParameters();
+        Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+        Map<TypeVariable<?>, Type> bindings = new HashMap<>();
+        for (int i = 0; i < parameters.length && i < arguments.length; i++) {
+            bindings.put(parameters[i], arguments[i]);
+        }
+        return bindings;
+    }
+
+    private static Type typeArgumentOf(Type type, int index) {
+        if (type instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+            if (index < arguments.length) {
+                return arguments[index];
+            }
+        }
+        return Object.class;
+    }
+
+    private static Class<?> rawTypeOf(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        return null;
+    }
+
+    private static Class<?> boxed(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        return Array.get(Array.newInstance(type, 1), 0).getClass();
+    }
+
+    private static JSONObject array(JSONObject items) {
+        return nullable(new JSONObject().fluentPut(TYPE, "array").fluentPut("items", items));
+    }
+
+    /**
+     * @return a schema accepting what {@code schema} accepts or null, objects and arrays only being
+     *     checked as such when they are the only type of their schema
+     */
+    private static JSONObject nullable(JSONObject schema) {
+        JSONArray anyOf = new JSONArray(2);
+        anyOf.add(schema);
+        anyOf.add(new JSONObject().fluentPut(TYPE, "null"));
+        return new JSONObject().fluentPut("anyOf", anyOf);
+    }
+
+    /** @return a schema accepting the given scalar types or null */
+    private static JSONObject types(String... types) {
+        JSONArray nullable = new JSONArray(types.length + 1);
+        nullable.addAll(Arrays.asList(types));
+        nullable.add("null");
+        return new JSONObject().fluentPut(TYPE, nullable);
+    }
+
+    private static JSONObject any() {
+        return new JSONObject();
+    }
+}
@@ -2,7 +2,9 @@ package io.github.glytching.junit.extension.json.annotation;
 
 import java.lang.annotation.*;
 
+import io.github.glytching.junit.extension.json.FailedCaseWatcher;
 import io.github.glytching.junit.extension.json.JsonFileArgumentsProvider;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ArgumentsSource;
 
@@ -13,12 +15,81 @@ import org.junit.jupiter.params.provider.ArgumentsSource;
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 @ArgumentsSource(JsonFileArgumentsProvider.class)
+@ExtendWith(FailedCaseWatcher.class)
 @ParameterizedTest
 public @interface JsonFileSource {
 
     /**
-     * The JsonFile Resource Path in the test/resources
+     * The JsonFile Resource Path in the test/resources. A path may also be a glob pattern, such as
+     * {@code cases/**}{@code /*.json}, or a directory ending with {@code /}, standing for every
+     * file beneath it; the files found on the classpath are supplied in order of their paths.
      */
     String[] resources();
 
+    /**
+     * Whether each resource holds many cases rather than one. When {@code true} a resource holding a
+     * top level JSON array supplies one invocation per array element and a JSON Lines resource
+     * ({@code .jsonl} or {@code .ndjson}) supplies one invocation per line. Elements are read one
+     * at a time as the tests consume them, so the size of a resource does not drive heap usage.
+     */
+    boolean streaming() default false;
+
+    /**
+     * Whether a parsed resource may be shared with other test methods which use the same resource
+     * and parameter type, by way of a cache held for the whole test run. Every test still receives
+     * its own copy of the parsed value. Worth it for large resources read by many methods, at the
+     * cost of hashing each resource and holding its parsed form. Streamed resources are never
+     * cached.
+     */
+    boolean cache() default false;
+
+    /**
+     * Whether a resource is compiled on first use into a binary JSONB file next to it, which later
+     * runs read in place of the JSON for as long as the resource, fastjson2 and the JDK are
+     * unchanged. An optimisation for large resources; only applies to resources which are plain
+     * files, neither encoded nor streamed.
+     */
+    boolean compile() default false;
+
+    /**
+     * How many of the following resources to read and parse in the background while the current
+     * invocation runs, {@code 0} reads each resource only when its invocation is due. Arguments are
+     * supplied in the order of {@link #resources()} either way. Has no effect on streamed
+     * resources.
+     */
+    int prefetch() default 0;
+
+    /**
+     * How each case is bound onto the parameters of the test method, by default the whole case is
+     * deserialized into the first parameter.
+     */
+    ParameterBinding binding() default ParameterBinding.SINGLE;
+
+    /**
+     * A JSONPath, such as {@code $.data.items}, selecting the part of each case which is bound to
+     * the parameters. The subtrees of the case which the path does not select are skipped while
+     * parsing rather than deserialized. A path which selects nothing binds {@code null} to a single
+     * parameter. By default the whole case is bound.
+     *
+     * <p>With a {@link #deserializer()} the path may select by member names and array indexes
+     * only, such as {@code $.data.items[0]}, as the selected part is handed over as it is written.
+     */
+    String path() default "";
+
+    /**
+     * A JSON Schema resource, resolved like {@link #resources()}, which every case must match as
+     * written in its resource. All cases are checked at once before the first test of the class
+     * runs, and the first invalid case found fails the method with its resource and index. By
+     * default cases are only checked when validation is switched on for the whole run, and then
+     * against a schema derived from the parameter types.
+     */
+    String schema() default "";
+
+    /**
+     * The name of the {@link io.github.glytching.junit.extension.json.FixtureDeserializer} which
+     * reads the values, registered as a service, or {@code fastjson2} for the built in reader. By
+     * default the one selected for the whole run, failing that the built in reader.
+     */
+    String deserializer() default "";
+
 }
\ No newline at end of file
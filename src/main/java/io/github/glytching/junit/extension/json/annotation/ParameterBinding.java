@@ -0,0 +1,28 @@
+package io.github.glytching.junit.extension.json.annotation;
+
+/**
+ * How a JSON case is bound onto the parameters of a {@link JsonFileSource} test method.
+ *
+ * @author xiaohui
+ */
+public enum ParameterBinding {
+
+    /** The whole case is deserialized into the first parameter. */
+    SINGLE,
+
+    /**
+     * The case is a JSON object whose top level properties are deserialized into the parameters
+     * of the same name. A parameter's name is taken from {@code @JSONField(name = ...)} if present,
+     * otherwise from the compiled parameter name which requires compiling with {@code -parameters}.
+     * A parameter with no matching property receives {@code null}, or the default value of a
+     * primitive.
+     */
+    BY_NAME,
+
+    /**
+     * The case is a JSON array whose elements are deserialized into the parameters in order.
+     * Surplus elements are ignored, parameters without an element are treated as for {@link
+     * #BY_NAME}.
+     */
+    BY_POSITION
+}
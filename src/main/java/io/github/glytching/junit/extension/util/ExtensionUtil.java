@@ -1,5 +1,6 @@
 package io.github.glytching.junit.extension.util;
 
+import java.util.Optional;
 import org.junit.jupiter.api.extension.ExtensionContext;
 
 public final class ExtensionUtil {
@@ -22,6 +23,22 @@ public final class ExtensionUtil {
     return extensionContext.getStore(namespace(extensionContext, clazz));
   }
 
+  /**
+   * Reads a configuration parameter, falling back to a system property of the same name. The
+   * fallback covers engines which have been launched without the launcher's usual handling of
+   * system properties, as is the case for engines executed directly in tests.
+   *
+   * @param extensionContext the <em>context</em> in which the current test or container is being
+   *     executed
+   * @param key the name of the configuration parameter
+   * @return the configured value, if any
+   */
+  public static Optional<String> getConfigurationParameter(
+      ExtensionContext extensionContext, String key) {
+    Optional<String> value = extensionContext.getConfigurationParameter(key);
+    return value.isPresent() ? value : Optional.ofNullable(System.getProperty(key));
+  }
+
   /**
    * Creates a {@link ExtensionContext.Namespace} in which extension state is stored on creation for
    * post execution destruction. Storing data in a custom namespace prevents accidental cross
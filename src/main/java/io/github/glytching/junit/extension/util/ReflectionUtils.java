@@ -21,6 +21,31 @@ import sun.misc.Unsafe;
  */
 public class ReflectionUtils {
 
+  private static final String[] JDK_PACKAGES = {"java.", "javax.", "jdk.", "sun.", "com.sun."};
+
+  private static final ClassValue<List<Field>> INSTANCE_FIELDS =
+      new ClassValue<List<Field>>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+          List<Field> fields = new ArrayList<>();
+          // the fields of the JDK are not open to reflection from JDK 16 on
+          for (Class<?> current = type;
+              current != null && !isJdkClass(current);
+              current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+              int modifiers = field.getModifiers();
+              if (!Modifier.isStatic(modifiers)
+                  && !Modifier.isTransient(modifiers)
+                  && !field.isSynthetic()
+                  && makeAccessible(field)) {
+                fields.add(field);
+              }
+            }
+          }
+          return Collections.unmodifiableList(fields);
+        }
+      };
+
   /**
    * If you want to set static field, you should call {@link ReflectionUtils#setField(Object, Field,
    * Object)}
@@ -45,6 +70,41 @@ public class ReflectionUtils {
     setField(modifiedObj, foundField, value);
   }
 
+  /**
+   * @param type type
+   * @return the non static, non transient fields of {@code type} and of its super classes up to
+   *     the first class of the JDK, made accessible; fields of a module which is not open to this
+   *     one are left out. Looked up once per class
+   */
+  public static List<Field> getInstanceFields(Class<?> type) {
+    return INSTANCE_FIELDS.get(type);
+  }
+
+  /**
+   * @param type type
+   * @return whether {@code type} belongs to the JDK, such as {@code java.util.ArrayList}
+   */
+  public static boolean isJdkClass(Class<?> type) {
+    String name = type.getName();
+    for (String jdkPackage : JDK_PACKAGES) {
+      if (name.startsWith(jdkPackage)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** @return false if the module of the field is not open to this one */
+  private static boolean makeAccessible(Field field) {
+    try {
+      field.setAccessible(true);
+      return true;
+    } catch (RuntimeException e) {
+      // InaccessibleObjectException, which only exists from JDK 9 on
+      return false;
+    }
+  }
+
   @Nullable
   public static <T> T getField(Object object, String fieldName) {
     return getFieldWithFilter(object, fieldName, anyField -> true);
@@ -0,0 +1,61 @@
+package io.github.glytching.junit.extension.util;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Creates the executors the extensions run their own work on. */
+public final class ThreadUtils {
+
+  /** the number of threads created so far, by name prefix */
+  private static final ConcurrentMap<String, AtomicInteger> THREAD_COUNTS =
+      new ConcurrentHashMap<>();
+
+  // this is a utility class - hide the public ctor
+  private ThreadUtils() {}
+
+  /**
+   * Creates daemon threads, so that threads left running by a failed test never keep the JVM
+   * alive, named {@code prefix-1}, {@code prefix-2} and so on across all factories of that prefix.
+   *
+   * @param prefix the name of the threads, less their number
+   * @return the thread factory
+   */
+  public static ThreadFactory daemonThreadFactory(String prefix) {
+    AtomicInteger count = THREAD_COUNTS.computeIfAbsent(prefix, key -> new AtomicInteger());
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * @param threads the number of threads of the pool
+   * @param prefix the name of the threads, see {@link #daemonThreadFactory(String)}
+   * @return a fixed pool of daemon threads
+   */
+  public static ExecutorService newDaemonThreadPool(int threads, String prefix) {
+    return Executors.newFixedThreadPool(threads, daemonThreadFactory(prefix));
+  }
+
+  /**
+   * Looks {@code Executors.newVirtualThreadPerTaskExecutor()} up reflectively, as it is provided
+   * by Java 21 onwards only.
+   *
+   * @return an executor starting a virtual thread per task, or empty if the runtime has none
+   */
+  public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+    try {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return Optional.of((ExecutorService) factory.invoke(null));
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return Optional.empty();
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package io.github.glytching.junit.extension.benchmark;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.opentest4j.AssertionFailedError;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(TemporaryFolderExtension.class)
+public class BaselineTest {
+
+  private static final String TEST = "com.example.MyTest#aTest [1] a, b";
+
+  private ExtensionContext extensionContext;
+
+  private Path file;
+
+  @BeforeEach
+  void setUp(TemporaryFolder temporaryFolder) {
+    file = temporaryFolder.getRoot().toPath().resolve("baseline/benchmark-baseline.csv");
+    extensionContext = mock(ExtensionContext.class);
+    when(extensionContext.getConfigurationParameter(Baseline.FILE_KEY))
+        .thenReturn(Optional.of(file.toString()));
+  }
+
+  @Test
+  void willWriteTheBaselineWhenUpdating() throws IOException {
+    String other = "100,900,10.0,900,950,com.example.MyTest#other";
+    Files.createDirectories(file.getParent());
+    Files.write(file, Arrays.asList("# a comment", other), UTF_8);
+    when(extensionContext.getConfigurationParameter(Baseline.UPDATE_KEY))
+        .thenReturn(Optional.of("true"));
+
+    Baseline.verify(extensionContext, TEST, histogramOf(100, 1000, 0), NANOSECONDS);
+
+    assertThat(
+        Files.readAllLines(file, UTF_8),
+        contains(
+            "# count,mean,deviation,p50,p99,test (nanoseconds)",
+            other,
+            "100,1000,0.0,1000,1000," + TEST));
+    assertThat(Baseline.read(file).get(TEST).mean, equalTo(1000L));
+  }
+
+  @Test
+  void willFailATestWhichIsConsistentlySlower() throws IOException {
+    writeBaseline(histogramOf(100, 1000, 20));
+
+    AssertionFailedError error =
+        assertThrows(
+            AssertionFailedError.class,
+            () -> Baseline.verify(extensionContext, TEST, histogramOf(100, 1200, 20), NANOSECONDS));
+
+    assertThat(
+        error.getMessage(),
+        startsWith(
+            TEST
+                + " has regressed: a mean of 1200 NANOSECONDS over 100 iterations against a"
+                + " baseline of 1000 NANOSECONDS over 100 iterations, +20.0% where 10.0% is"
+                + " tolerated"));
+    assertThat(error.getMessage(), containsString(Baseline.UPDATE_KEY + "=true"));
+  }
+
+  @Test
+  void willPassATestWithinTheTolerance() throws IOException {
+    writeBaseline(histogramOf(100, 1000, 20));
+
+    Baseline.verify(extensionContext, TEST, histogramOf(100, 1080, 20), NANOSECONDS);
+  }
+
+  @Test
+  void willPassATestWithAFewSlowIterationsOnly() throws IOException {
+    writeBaseline(histogramOf(100, 1000, 20));
+    LatencyHistogram measured = histogramOf(98, 1000, 20);
+    measured.record(50_000);
+    measured.record(50_000);
+
+    Baseline.verify(extensionContext, TEST, measured, NANOSECONDS);
+  }
+
+  @Test
+  void willHonourAConfiguredTolerance() throws IOException {
+    writeBaseline(histogramOf(100, 1000, 20));
+    when(extensionContext.getConfigurationParameter(Baseline.TOLERANCE_KEY))
+        .thenReturn(Optional.of("0.01"));
+
+    assertThrows(
+        AssertionFailedError.class,
+        () -> Baseline.verify(extensionContext, TEST, histogramOf(100, 1080, 20), NANOSECONDS));
+  }
+
+  @Test
+  void willIgnoreATestWithoutABaseline() throws IOException {
+    Baseline.verify(extensionContext, TEST, histogramOf(100, 1000, 0), NANOSECONDS);
+
+    assertThat(Files.exists(file), equalTo(false));
+  }
+
+  @Test
+  void willTakeTheTailOfStudentsTDistribution() {
+    assertThat(WelchTest.upperTail(2.228, 10), closeTo(0.025, 0.0001));
+    assertThat(WelchTest.upperTail(0, 5), closeTo(0.5, 0.0001));
+    assertThat(WelchTest.upperTail(-2.015, 5), closeTo(0.95, 0.0001));
+  }
+
+  private void writeBaseline(LatencyHistogram histogram) throws IOException {
+    when(extensionContext.getConfigurationParameter(Baseline.UPDATE_KEY))
+        .thenReturn(Optional.of("true"));
+    Baseline.verify(extensionContext, TEST, histogram, NANOSECONDS);
+    when(extensionContext.getConfigurationParameter(Baseline.UPDATE_KEY))
+        .thenReturn(Optional.empty());
+  }
+
+  /** @return a histogram of {@code count} latencies spread by {@code spread} around a mean */
+  private static LatencyHistogram histogramOf(int count, long mean, long spread) {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < count; i++) {
+      histogram.record(mean + (i % 2 == 0 ? spread : -spread));
+    }
+    return histogram;
+  }
+}
@@ -1,30 +1,50 @@
 package io.github.glytching.junit.extension.benchmark;
 
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
 import io.github.glytching.junit.extension.util.ExecutionEvent;
 import io.github.glytching.junit.extension.util.RecordingExecutionListener;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.junit.jupiter.engine.JupiterTestEngine;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.junit.platform.engine.ExecutionRequest;
+import org.junit.platform.engine.TestExecutionResult;
 import org.junit.platform.engine.TestDescriptor;
 import org.junit.platform.engine.UniqueId;
 import org.junit.platform.engine.reporting.ReportEntry;
 import org.junit.platform.launcher.LauncherDiscoveryRequest;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
+import static org.junit.jupiter.api.Assertions.fail;
 import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
 import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
 
+@ExtendWith(TemporaryFolderExtension.class)
 public class BenchmarkExtensionTest {
 
   private JupiterTestEngine engine;
@@ -66,6 +86,225 @@ public class BenchmarkExtensionTest {
         equalTo(format("Elapsed time in %s for canBenchmark()", MICROSECONDS.name())));
   }
 
+  @Test
+  void willPublishStatisticsOfTheMeasuredIterationsOnly() {
+    IteratedBenchmarkTest.invocations.set(0);
+
+    // when executing a test case with a benchmarked test
+    execute(IteratedBenchmarkTest.class);
+
+    // then the test body is invoked for each warmup and measurement iteration
+    assertThat(IteratedBenchmarkTest.invocations.get(), equalTo(2 + 3));
+
+    // and statistics of the measured iterations, rather than the elapsed time, are published
+    List<ExecutionEvent> publishedEvents = getReportEntries();
+
+    assertThat(publishedEvents.size(), equalTo(1));
+
+    Map<String, String> statistics =
+        publishedEvents.get(0).getPayload(ReportEntry.class).get().getKeyValuePairs();
+    assertThat(
+        new ArrayList<>(statistics.keySet()).subList(0, 7),
+        equalTo(
+            Stream.of("Min", "Mean", "P50", "P90", "P99", "P99.9", "Max")
+                .map(BenchmarkExtensionTest::toStatisticKey)
+                .collect(Collectors.toList())));
+    long min = Long.parseLong(statistics.get(toStatisticKey("Min")));
+    long max = Long.parseLong(statistics.get(toStatisticKey("Max")));
+    assertThat(min >= 1000, equalTo(true));
+    assertThat(max >= min, equalTo(true));
+  }
+
+  @Test
+  void willPublishTheResourcesUsedByATest() {
+    // when executing a test case
+    execute(DefaultTimeUnitBenchmarkTest.class);
+
+    // then the resources used are published along with the elapsed time
+    Map<String, String> report =
+        getReportEntries().get(0).getPayload(ReportEntry.class).get().getKeyValuePairs();
+    assertThat(
+        report.keySet(),
+        hasItems(
+            "Allocated bytes for canBenchmark",
+            format("CPU time in %s for canBenchmark", MILLISECONDS.name()),
+            format("Wall time in %s for canBenchmark", MILLISECONDS.name()),
+            "GC count for canBenchmark",
+            format("GC time in %s for canBenchmark", MILLISECONDS.name())));
+    long wall =
+        Long.parseLong(report.get(format("Wall time in %s for canBenchmark", MILLISECONDS)));
+    assertThat(wall >= 5, equalTo(true));
+  }
+
+  @Test
+  void willPublishTheBytesAllocatedByTheMeasuredIterations() {
+    // when executing a test case with a benchmarked test which allocates
+    execute(AllocatingBenchmarkTest.class);
+
+    // then the bytes allocated by each iteration, and no fewer, are published
+    Map<String, String> report =
+        getReportEntries().get(0).getPayload(ReportEntry.class).get().getKeyValuePairs();
+    long total = Long.parseLong(report.get("Allocated bytes for canBenchmark"));
+    long perIteration =
+        Long.parseLong(report.get("Allocated bytes per iteration for canBenchmark"));
+    assertThat(perIteration >= AllocatingBenchmarkTest.SIZE, equalTo(true));
+    assertThat(total >= 3L * AllocatingBenchmarkTest.SIZE, equalTo(true));
+    assertThat(
+        report.keySet(), hasItem(format("CPU time in %s for canBenchmark", MICROSECONDS.name())));
+  }
+
+  @Test
+  void willPublishTheThroughputAndScalabilityOfAConcurrentBenchmark() {
+    ConcurrentBenchmarkTest.invocations.set(0);
+
+    // when executing a test case with a concurrently benchmarked test
+    execute(ConcurrentBenchmarkTest.class);
+
+    // then the test body is invoked for each warmup iteration and each operation of each thread
+    assertThat(ConcurrentBenchmarkTest.invocations.get(), equalTo(2 + 1 * 5 + 2 * 5));
+
+    // and a report for each thread count, followed by the scalability curve, is published
+    List<ExecutionEvent> publishedEvents = getReportEntries();
+
+    assertThat(publishedEvents.size(), equalTo(3));
+
+    Map<String, String> twoThreads =
+        publishedEvents.get(1).getPayload(ReportEntry.class).get().getKeyValuePairs();
+    assertThat(
+        twoThreads.keySet(),
+        hasItems(
+            "Throughput in ops/s for canBenchmark with 2 threads",
+            toStatisticKey("P99", "canBenchmark with 2 threads"),
+            toStatisticKey("P50", "canBenchmark on thread 1 of 2"),
+            toStatisticKey("Max", "canBenchmark on thread 2 of 2")));
+    long throughput =
+        Long.parseLong(twoThreads.get("Throughput in ops/s for canBenchmark with 2 threads"));
+    assertThat(throughput > 0, equalTo(true));
+
+    Map<String, String> curve =
+        publishedEvents.get(2).getPayload(ReportEntry.class).get().getKeyValuePairs();
+    assertThat(
+        new ArrayList<>(curve.keySet()),
+        equalTo(
+            Arrays.asList(
+                "Speedup for canBenchmark with 1 threads",
+                "Speedup for canBenchmark with 2 threads")));
+    assertThat(curve.get("Speedup for canBenchmark with 1 threads"), equalTo("1.00"));
+  }
+
+  @Test
+  void willStartTheThreadsOfAConcurrentBenchmarkTogether() {
+    // when executing a test case whose threads each wait for the other
+    execute(BarrierConcurrentBenchmarkTest.class);
+
+    // then they are released together, and the test passes
+    assertThat(getReportEntries().size(), equalTo(2));
+    assertThat(failuresOf(listener), equalTo(new ArrayList<>()));
+  }
+
+  @Test
+  void willRunAConcurrentBenchmarkForADuration() {
+    // when executing a test case with a concurrently benchmarked test which runs for a duration
+    execute(TimedConcurrentBenchmarkTest.class);
+
+    // then each thread keeps invoking the test body until the duration is up
+    Map<String, String> report =
+        getReportEntries().get(0).getPayload(ReportEntry.class).get().getKeyValuePairs();
+    long throughput =
+        Long.parseLong(report.get("Throughput in ops/s for canBenchmark with 2 threads"));
+    assertThat(throughput > 2, equalTo(true));
+    assertThat(throughput < 2 * 1000, equalTo(true));
+  }
+
+  @Test
+  void willRunAConcurrentBenchmarkOnVirtualThreadsWhereProvided() {
+    // when executing a test case with a concurrently benchmarked test asking for virtual threads
+    execute(VirtualThreadConcurrentBenchmarkTest.class);
+
+    // then it runs, on platform threads where the runtime has no virtual threads
+    assertThat(getReportEntries().size(), equalTo(2));
+    assertThat(failuresOf(listener), equalTo(new ArrayList<>()));
+  }
+
+  @Test
+  void willFailAConcurrentBenchmarkWhenAnyThreadFails() {
+    FailingConcurrentBenchmarkTest.invocations.set(0);
+
+    // when executing a test case whose test body fails on one of its threads
+    execute(FailingConcurrentBenchmarkTest.class);
+
+    // then the failure of that thread fails the test
+    assertThat(failuresOf(listener), equalTo(Arrays.asList("failed on invocation 3")));
+    assertThat(getReportEntries().size(), equalTo(0));
+  }
+
+  @Test
+  void willFailAConcurrentBenchmarkWhichOutlastsItsTimeout() {
+    // when executing a test case whose test body never returns on its own
+    execute(HangingConcurrentBenchmarkTest.class);
+
+    // then its threads are interrupted once the timeout is up, and the test fails
+    assertThat(
+        failuresOf(listener),
+        equalTo(Arrays.asList("canBenchmark timed out after 100 ms with 2 threads")));
+    assertThat(getReportEntries().size(), equalTo(0));
+  }
+
+  @Test
+  void willPublishAndWriteTheHistogramOfEveryInvocationOfARepeatedTest(
+      TemporaryFolder temporaryFolder) throws IOException {
+    File directory = temporaryFolder.createDirectory("histograms");
+    System.setProperty(BenchmarkExtension.HISTOGRAM_DIRECTORY_KEY, directory.getPath());
+    try {
+      // when executing a test case with a repeated test
+      execute(RepeatedBenchmarkTest.class);
+    } finally {
+      System.clearProperty(BenchmarkExtension.HISTOGRAM_DIRECTORY_KEY);
+    }
+
+    // then the elapsed time of each repetition and then statistics of them all are published
+    List<ExecutionEvent> publishedEvents = getReportEntries();
+
+    assertThat(publishedEvents.size(), equalTo(4));
+    assertThat(
+        publishedEvents.get(3).getPayload(ReportEntry.class).get().getKeyValuePairs().keySet(),
+        hasItem(toStatisticKey("P99.9")));
+
+    // and the histogram of all repetitions is written
+    File written =
+        new File(
+            directory,
+            RepeatedBenchmarkTest.class.getName()
+                + "#canBenchmark"
+                + BenchmarkExtension.HISTOGRAM_FILE_EXTENSION);
+    try (InputStream in = new FileInputStream(written)) {
+      LatencyHistogram histogram = LatencyHistogram.read(in);
+      assertThat(histogram.getTotalCount(), equalTo(3L));
+      assertThat(histogram.getMin() >= MILLISECONDS.toNanos(1), equalTo(true));
+    }
+  }
+
+  @Test
+  void willKeyTheBaselinesOfParameterizedInvocationsByTheirNumber(
+      TemporaryFolder temporaryFolder) throws IOException {
+    File baseline = new File(temporaryFolder.getRoot(), "benchmark-baseline.csv");
+    System.setProperty(Baseline.FILE_KEY, baseline.getPath());
+    System.setProperty(Baseline.UPDATE_KEY, "true");
+    try {
+      // when executing a test case with a parameterized benchmark while updating the baseline
+      execute(ParameterizedBenchmarkTest.class);
+    } finally {
+      System.clearProperty(Baseline.FILE_KEY);
+      System.clearProperty(Baseline.UPDATE_KEY);
+    }
+
+    // then each invocation has its own line, named by its number rather than its arguments
+    String test = ParameterizedBenchmarkTest.class.getName() + "#canBenchmark";
+    assertThat(
+        new ArrayList<>(Baseline.read(baseline.toPath()).keySet()),
+        equalTo(Arrays.asList(test + " #1", test + " #2")));
+  }
+
   private void execute(Class<?> clazz) {
     LauncherDiscoveryRequest request = getRequest(clazz);
     engine.execute(
@@ -92,6 +331,22 @@ public class BenchmarkExtensionTest {
         + "()";
   }
 
+  private static String toStatisticKey(String statistic) {
+    return toStatisticKey(statistic, "canBenchmark");
+  }
+
+  private static String toStatisticKey(String statistic, String testName) {
+    return format("%s time in %s for %s", statistic, MICROSECONDS.name(), testName);
+  }
+
+  private static List<String> failuresOf(RecordingExecutionListener listener) {
+    return listener
+        .getFinishedEventsByStatus(TestExecutionResult.Status.FAILED)
+        .map(event -> event.getPayload(TestExecutionResult.class).get())
+        .map(result -> result.getThrowable().get().getMessage())
+        .collect(Collectors.toList());
+  }
+
   @ExtendWith(BenchmarkExtension.class)
   static class DefaultTimeUnitBenchmarkTest {
 
@@ -103,6 +358,153 @@ public class BenchmarkExtensionTest {
     }
   }
 
+  static class IteratedBenchmarkTest {
+
+    static final AtomicInteger invocations = new AtomicInteger();
+
+    @SuppressWarnings("unused")
+    @RegisterExtension
+    static BenchmarkExtension benchmarkExtension = new BenchmarkExtension(TimeUnit.MICROSECONDS);
+
+    @Test
+    @Benchmark(warmupIterations = 2, measurementIterations = 3)
+    public void canBenchmark() throws InterruptedException {
+      invocations.incrementAndGet();
+      Thread.sleep(1);
+    }
+  }
+
+  static class AllocatingBenchmarkTest {
+
+    static final int SIZE = 1 << 20;
+
+    static byte[] allocated;
+
+    @SuppressWarnings("unused")
+    @RegisterExtension
+    static BenchmarkExtension benchmarkExtension = new BenchmarkExtension(TimeUnit.MICROSECONDS);
+
+    @Test
+    @Benchmark(warmupIterations = 1, measurementIterations = 3)
+    public void canBenchmark() {
+      allocated = new byte[SIZE];
+    }
+  }
+
+  static class ConcurrentBenchmarkTest {
+
+    static final AtomicInteger invocations = new AtomicInteger();
+
+    @SuppressWarnings("unused")
+    @RegisterExtension
+    static BenchmarkExtension benchmarkExtension = new BenchmarkExtension(TimeUnit.MICROSECONDS);
+
+    @Test
+    @ConcurrentBenchmark(
+        threads = {1, 2},
+        warmupIterations = 2,
+        operations = 5)
+    public void canBenchmark() throws InterruptedException {
+      invocations.incrementAndGet();
+      Thread.sleep(1);
+    }
+  }
+
+  @ExtendWith(BenchmarkExtension.class)
+  static class BarrierConcurrentBenchmarkTest {
+
+    static final CyclicBarrier barrier = new CyclicBarrier(2);
+
+    @Test
+    @ConcurrentBenchmark(
+        threads = {2},
+        warmupIterations = 0,
+        operations = 1)
+    public void canBenchmark() throws Exception {
+      barrier.await(5, TimeUnit.SECONDS);
+    }
+  }
+
+  @ExtendWith(BenchmarkExtension.class)
+  static class TimedConcurrentBenchmarkTest {
+
+    @Test
+    @ConcurrentBenchmark(
+        threads = {2},
+        warmupIterations = 0,
+        durationMillis = 50)
+    public void canBenchmark() throws InterruptedException {
+      Thread.sleep(5);
+    }
+  }
+
+  @ExtendWith(BenchmarkExtension.class)
+  static class VirtualThreadConcurrentBenchmarkTest {
+
+    @Test
+    @ConcurrentBenchmark(
+        threads = {2},
+        warmupIterations = 0,
+        operations = 2,
+        virtualThreads = true)
+    public void canBenchmark() throws InterruptedException {
+      Thread.sleep(1);
+    }
+  }
+
+  @ExtendWith(BenchmarkExtension.class)
+  static class FailingConcurrentBenchmarkTest {
+
+    static final AtomicInteger invocations = new AtomicInteger();
+
+    @Test
+    @ConcurrentBenchmark(
+        threads = {2},
+        warmupIterations = 0,
+        operations = 10)
+    public void canBenchmark() {
+      int invocation = invocations.incrementAndGet();
+      if (invocation == 3) {
+        fail("failed on invocation " + invocation);
+      }
+    }
+  }
+
+  @ExtendWith(BenchmarkExtension.class)
+  static class HangingConcurrentBenchmarkTest {
+
+    @Test
+    @ConcurrentBenchmark(
+        threads = {2},
+        warmupIterations = 0,
+        operations = 1,
+        timeoutMillis = 100)
+    public void canBenchmark() throws InterruptedException {
+      Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+    }
+  }
+
+  @ExtendWith(BenchmarkExtension.class)
+  static class ParameterizedBenchmarkTest {
+
+    @ParameterizedTest(name = "with {0}")
+    @ValueSource(strings = {"a, b", "c"})
+    @Benchmark(warmupIterations = 0, measurementIterations = 2)
+    public void canBenchmark(String value) {}
+  }
+
+  static class RepeatedBenchmarkTest {
+
+    @SuppressWarnings("unused")
+    @RegisterExtension
+    static BenchmarkExtension benchmarkExtension = new BenchmarkExtension(TimeUnit.MICROSECONDS);
+
+    @RepeatedTest(3)
+    public void canBenchmark() throws InterruptedException {
+      Thread.sleep(1);
+    }
+  }
+
   static class CustomTimeUnitBenchmarkTest {
 
     @SuppressWarnings("unused")
@@ -0,0 +1,87 @@
+package io.github.glytching.junit.extension.benchmark;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LatencyHistogramTest {
+
+  @Test
+  void willCountSmallValuesExactly() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long value = 1; value <= 100; value++) {
+      histogram.record(value);
+    }
+
+    assertThat(histogram.getTotalCount(), equalTo(100L));
+    assertThat(histogram.getMin(), equalTo(1L));
+    assertThat(histogram.getMax(), equalTo(100L));
+    assertThat(histogram.getMean(), equalTo(51L));
+    assertThat(histogram.getValueAtPercentile(50), equalTo(50L));
+    assertThat(histogram.getValueAtPercentile(90), equalTo(90L));
+    assertThat(histogram.getValueAtPercentile(99.9), equalTo(100L));
+  }
+
+  @Test
+  void willHoldLargeValuesToWithinTheirPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    long[] values = {1_000, 12_345, 1_000_000, 987_654_321, Long.MAX_VALUE / 3};
+    for (long value : values) {
+      histogram.record(value);
+    }
+
+    for (int i = 0; i < values.length; i++) {
+      long percentile = histogram.getValueAtPercentile(100.0 * (i + 1) / values.length);
+      assertThat(percentile, greaterThanOrEqualTo(values[i]));
+      assertThat(percentile - values[i], lessThanOrEqualTo(values[i] / 64));
+    }
+    assertThat(histogram.getValueAtPercentile(100), equalTo(Long.MAX_VALUE / 3));
+  }
+
+  @Test
+  void willReportZeroForAnEmptyHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    assertThat(histogram.getMin(), equalTo(0L));
+    assertThat(histogram.getMean(), equalTo(0L));
+    assertThat(histogram.getValueAtPercentile(99), equalTo(0L));
+  }
+
+  @Test
+  void willMergeHistogramsReadBack() throws IOException {
+    LatencyHistogram first = new LatencyHistogram();
+    LatencyHistogram second = new LatencyHistogram();
+    for (long value = 1; value <= 1000; value++) {
+      (value % 2 == 0 ? first : second).record(value * 1000);
+    }
+
+    LatencyHistogram merged = readBack(first);
+    merged.add(readBack(second));
+
+    assertThat(merged.getTotalCount(), equalTo(1000L));
+    assertThat(merged.getMin(), equalTo(1000L));
+    assertThat(merged.getMax(), equalTo(1_000_000L));
+    assertThat(
+        merged.getValueAtPercentile(50),
+        allOf(greaterThanOrEqualTo(500_000L), lessThan(508_000L)));
+  }
+
+  @Test
+  void willRejectAStreamWhichIsNotAHistogram() {
+    assertThrows(
+        IOException.class,
+        () -> LatencyHistogram.read(new ByteArrayInputStream(new byte[] {1, 2, 3, 4})));
+  }
+
+  private static LatencyHistogram readBack(LatencyHistogram histogram) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    histogram.write(out);
+    return LatencyHistogram.read(new ByteArrayInputStream(out.toByteArray()));
+  }
+}
@@ -0,0 +1,43 @@
+package io.github.glytching.junit.extension.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.PreconditionViolationException;
+
+public class CaseSelectionTest {
+
+    @Test
+    void should_select_indexes_and_ranges() {
+        CaseSelection selection = CaseSelection.parse("3, 10-12,1");
+
+        assertEquals(
+                Arrays.asList(1, 3, 10, 11),
+                selection.indexes(12).boxed().collect(Collectors.toList()));
+        assertTrue(selection.contains(12));
+        assertFalse(selection.contains(2));
+    }
+
+    @Test
+    void should_read_the_selection_from_the_configuration() {
+        ExtensionContext context = mock(ExtensionContext.class);
+        when(context.getConfigurationParameter(CaseSelection.CASES_KEY))
+                .thenReturn(Optional.of("7"));
+
+        assertTrue(CaseSelection.of(context).contains(7));
+        assertNull(CaseSelection.of(mock(ExtensionContext.class)));
+    }
+
+    @Test
+    void should_reject_an_invalid_range() {
+        assertThrows(PreconditionViolationException.class, () -> CaseSelection.parse("5-2"));
+        assertThrows(PreconditionViolationException.class, () -> CaseSelection.parse("-1"));
+        assertThrows(PreconditionViolationException.class, () -> CaseSelection.parse("a"));
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.glytching.junit.extension.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.platform.commons.PreconditionViolationException;
+
+@ExtendWith(TemporaryFolderExtension.class)
+public class ClasspathIndexTest {
+
+    @Test
+    void should_translate_globs() {
+        Pattern pattern = ClasspathIndex.toRegex("cases/**/*.{json,jsonl}");
+
+        assertTrue(pattern.matcher("cases/a.json").matches());
+        assertTrue(pattern.matcher("cases/x/y/b.jsonl").matches());
+        assertFalse(pattern.matcher("cases/a.json.jsonb").matches());
+        assertFalse(pattern.matcher("other/a.json").matches());
+        assertTrue(ClasspathIndex.toRegex("case-?.json").matcher("case-1.json").matches());
+        assertFalse(ClasspathIndex.toRegex("case-?.json").matcher("case-/.json").matches());
+        assertTrue(ClasspathIndex.toRegex("case-[!0-4].json").matcher("case-7.json").matches());
+        assertFalse(ClasspathIndex.toRegex("case[!0-4]x.json").matcher("case/x.json").matches());
+        assertFalse(ClasspathIndex.toRegex("*.json").matcher("a/b.json").matches());
+    }
+
+    @Test
+    void should_expand_patterns_in_directories_and_jars(TemporaryFolder folder) throws IOException {
+        File directory = folder.createDirectory("classes");
+        write(directory.toPath().resolve("cases/b.json"));
+        write(directory.toPath().resolve("cases/nested/c.json"));
+        write(directory.toPath().resolve("cases/b.json.jsonb"));
+        File jar = jar(folder, "cases/a.json", "cases/nested/d.json", "other/e.json");
+
+        try (URLClassLoader classLoader = classLoader(directory, jar)) {
+            String[] resources =
+                    ClasspathIndex.expand(
+                            classLoader, new String[] {"/cases/**/*.json", "/single.json"});
+
+            assertArrayEquals(
+                    new String[] {
+                        "/cases/a.json",
+                        "/cases/b.json",
+                        "/cases/nested/c.json",
+                        "/cases/nested/d.json",
+                        "/single.json"
+                    },
+                    resources);
+            assertArrayEquals(
+                    new String[] {"/cases/nested/c.json", "/cases/nested/d.json"},
+                    ClasspathIndex.expand(classLoader, new String[] {"/cases/nested/"}));
+        }
+    }
+
+    @Test
+    void should_expand_a_pattern_at_the_root_in_jars(TemporaryFolder folder) throws IOException {
+        File directory = folder.createDirectory("classes");
+        write(directory.toPath().resolve("root-b.json"));
+        File jar = jar(folder, "root-a.json", "cases/root-c.json");
+
+        try (URLClassLoader classLoader = classLoader(directory, jar)) {
+            assertArrayEquals(
+                    new String[] {"/root-a.json", "/root-b.json"},
+                    ClasspathIndex.expand(classLoader, new String[] {"/root-*.json"}));
+        }
+    }
+
+    @Test
+    void should_resolve_a_pattern_once(TemporaryFolder folder) throws IOException {
+        File directory = folder.createDirectory("classes");
+        write(directory.toPath().resolve("cases/a.json"));
+
+        try (URLClassLoader classLoader = classLoader(directory)) {
+            String[] first = ClasspathIndex.expand(classLoader, new String[] {"/cases/*.json"});
+            write(directory.toPath().resolve("cases/b.json"));
+            String[] second = ClasspathIndex.expand(classLoader, new String[] {"/cases/*.json"});
+
+            assertArrayEquals(first, second);
+        }
+    }
+
+    @Test
+    void should_fail_on_a_pattern_matching_nothing(TemporaryFolder folder) throws IOException {
+        try (URLClassLoader classLoader = classLoader(folder.createDirectory("classes"))) {
+            assertThrows(
+                    PreconditionViolationException.class,
+                    () -> ClasspathIndex.expand(classLoader, new String[] {"/missing/*.json"}));
+        }
+    }
+
+    private static void write(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, "{}".getBytes(UTF_8));
+    }
+
+    private static File jar(TemporaryFolder folder, String... entries) throws IOException {
+        File jar = folder.createFile("fixtures.jar");
+        Set<String> directories = new HashSet<>();
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            for (String entry : entries) {
+                int slash = entry.indexOf('/');
+                for (; slash > 0; slash = entry.indexOf('/', slash + 1)) {
+                    String directory = entry.substring(0, slash + 1);
+                    if (directories.add(directory)) {
+                        out.putNextEntry(new JarEntry(directory));
+                        out.closeEntry();
+                    }
+                }
+                out.putNextEntry(new JarEntry(entry));
+                out.write("{}".getBytes(UTF_8));
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private static URLClassLoader classLoader(File... roots) throws IOException {
+        URL[] urls = new URL[roots.length];
+        for (int i = 0; i < roots.length; i++) {
+            urls[i] = roots[i].toURI().toURL();
+        }
+        return new URLClassLoader(urls, null);
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.glytching.junit.extension.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONObject;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TemporaryFolderExtension.class)
+public class CompiledFixtureTest {
+
+    @Test
+    void should_compile_a_fixture_next_to_it(TemporaryFolder folder) throws IOException {
+        Path fixture = fixture(folder, "{\"input\": [1, 2], \"output\": \"x\"}");
+
+        JSONObject document =
+                (JSONObject) JSONB.parse(CompiledFixture.of(fixture, content(fixture)));
+
+        assertEquals("x", document.getString("output"));
+        assertEquals(2, document.getJSONArray("input").size());
+        assertTrue(Files.isRegularFile(fixture.resolveSibling("fixture.json.jsonb")));
+    }
+
+    @Test
+    void should_read_the_compiled_form_while_the_fixture_is_unchanged(TemporaryFolder folder)
+            throws IOException {
+        Path fixture = fixture(folder, "[1, 2, 3]");
+        CompiledFixture.of(fixture, content(fixture));
+        Path compiled = CompiledFixture.compiledPathOf(fixture);
+        long modified = Files.getLastModifiedTime(compiled).toMillis();
+
+        byte[] jsonb = CompiledFixture.of(fixture, content(fixture));
+
+        assertEquals(3, ((JSONArray) JSONB.parse(jsonb)).size());
+        assertEquals(modified, Files.getLastModifiedTime(compiled).toMillis());
+    }
+
+    @Test
+    void should_compile_again_when_the_fixture_changes(TemporaryFolder folder) throws IOException {
+        Path fixture = fixture(folder, "[1, 2, 3]");
+        CompiledFixture.of(fixture, content(fixture));
+        Files.write(fixture, "[4]".getBytes(UTF_8));
+
+        JSONArray document = (JSONArray) JSONB.parse(CompiledFixture.of(fixture, content(fixture)));
+
+        assertEquals(1, document.size());
+        assertEquals(4, document.getIntValue(0));
+    }
+
+    @Test
+    void should_compile_again_when_the_compiled_form_is_corrupt(TemporaryFolder folder)
+            throws IOException {
+        Path fixture = fixture(folder, "\"lele\"");
+        Files.write(CompiledFixture.compiledPathOf(fixture), "JFB".getBytes(UTF_8));
+
+        assertEquals("lele", JSONB.parse(CompiledFixture.of(fixture, content(fixture))));
+    }
+
+    @Test
+    void should_compile_again_when_compiled_by_another_runtime(TemporaryFolder folder)
+            throws IOException {
+        Path fixture = fixture(folder, "\"größe\"");
+        CompiledFixture.of(fixture, content(fixture), "fastjson2 2.0.0, java 17");
+        Path compiled = CompiledFixture.compiledPathOf(fixture);
+        byte[] foreign = Files.readAllBytes(compiled);
+
+        assertEquals("größe", JSONB.parse(CompiledFixture.of(fixture, content(fixture))));
+        assertFalse(Arrays.equals(foreign, Files.readAllBytes(compiled)));
+    }
+
+    private static Path fixture(TemporaryFolder folder, String json) throws IOException {
+        Path fixture = folder.createFile("fixture.json").toPath();
+        Files.write(fixture, json.getBytes(UTF_8));
+        return fixture;
+    }
+
+    private static byte[] content(Path fixture) throws IOException {
+        return Files.readAllBytes(fixture);
+    }
+}
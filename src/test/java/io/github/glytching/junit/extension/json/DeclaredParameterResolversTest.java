@@ -0,0 +1,56 @@
+package io.github.glytching.junit.extension.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+import io.github.glytching.junit.extension.json.annotation.JsonFileSource;
+import io.github.glytching.junit.extension.util.ExtensionTester;
+import io.github.glytching.junit.extension.util.RecordingExecutionListener;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.junit.platform.engine.TestExecutionResult;
+
+public class DeclaredParameterResolversTest {
+
+    @Test
+    void should_fail_the_method_when_a_resolver_fails_to_tell() {
+        RecordingExecutionListener listener = ExtensionTester.execute(selectClass(Cases.class));
+
+        List<String> failures =
+                listener.getFinishedEventsByStatus(TestExecutionResult.Status.FAILED)
+                        .map(event -> event.getPayload(TestExecutionResult.class).get())
+                        .map(result -> result.getThrowable().get().getMessage())
+                        .collect(Collectors.toList());
+        assertEquals(1, failures.size());
+        assertTrue(
+                failures.get(0).startsWith(FailingResolver.class.getName() + " failed to tell"),
+                failures.get(0));
+    }
+
+    public static class Cases {
+
+        @JsonFileSource(resources = "cases/apple.json")
+        @ExtendWith(FailingResolver.class)
+        void whole(TestCase<String, String> testCase) {}
+    }
+
+    public static class FailingResolver implements ParameterResolver {
+
+        @Override
+        public boolean supportsParameter(
+                ParameterContext parameterContext, ExtensionContext extensionContext) {
+            throw new IllegalStateException("needs a test instance");
+        }
+
+        @Override
+        public Object resolveParameter(
+                ParameterContext parameterContext, ExtensionContext extensionContext) {
+            return null;
+        }
+    }
+}
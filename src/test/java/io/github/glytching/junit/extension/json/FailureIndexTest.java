@@ -0,0 +1,171 @@
+package io.github.glytching.junit.extension.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import io.github.glytching.junit.extension.json.annotation.JsonFileSource;
+import io.github.glytching.junit.extension.util.ExtensionTester;
+import io.github.glytching.junit.extension.util.RecordingExecutionListener;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.platform.engine.TestExecutionResult;
+
+@ExtendWith(TemporaryFolderExtension.class)
+public class FailureIndexTest {
+
+    @AfterEach
+    void clearProperties() {
+        System.clearProperty(FailureIndex.FILE_KEY);
+        System.clearProperty(FailureIndex.REPLAY_KEY);
+        FailingCases.run.clear();
+        FailingCases.fixed = false;
+    }
+
+    @Test
+    void should_record_the_failed_cases(TemporaryFolder folder) throws IOException {
+        Path failures = failuresFile(folder);
+
+        ExtensionTester.execute(selectClass(FailingCases.class));
+
+        assertEquals(
+                Arrays.asList(
+                        entry("streamed", "upper_case_test_cases.jsonl", "1"),
+                        entry("streamed", "upper_case_test_cases.jsonl", "2"),
+                        entry("whole", "cases/pear.json", "-")),
+                sorted(Files.readAllLines(failures, UTF_8)));
+    }
+
+    @Test
+    void should_replay_the_failed_cases_only(TemporaryFolder folder) throws IOException {
+        Path failures = failuresFile(folder);
+        ExtensionTester.execute(selectClass(FailingCases.class));
+        FailingCases.run.clear();
+        System.setProperty(FailureIndex.REPLAY_KEY, "true");
+
+        RecordingExecutionListener listener =
+                ExtensionTester.execute(selectClass(FailingCases.class));
+
+        assertEquals(Arrays.asList("]", "pear", "x,y"), sorted(FailingCases.run));
+        assertEquals(
+                3,
+                listener.getFinishedEventsByStatus(TestExecutionResult.Status.FAILED)
+                        .filter(event -> event.getTestDescriptor().isTest())
+                        .count());
+        assertEquals(3, Files.readAllLines(failures, UTF_8).size());
+    }
+
+    @Test
+    void should_forget_the_failed_cases_once_they_pass(TemporaryFolder folder) throws IOException {
+        Path failures = failuresFile(folder);
+        ExtensionTester.execute(selectClass(FailingCases.class));
+        System.setProperty(FailureIndex.REPLAY_KEY, "true");
+        FailingCases.fixed = true;
+
+        ExtensionTester.execute(selectClass(FailingCases.class));
+
+        assertEquals(0, Files.size(failures));
+    }
+
+    @Test
+    void should_leave_the_file_alone_when_nothing_failed(TemporaryFolder folder) {
+        Path failures = failuresFile(folder);
+        FailingCases.fixed = true;
+
+        ExtensionTester.execute(selectClass(FailingCases.class));
+
+        assertFalse(Files.exists(failures));
+    }
+
+    @Test
+    void should_not_track_methods_with_further_sources(TemporaryFolder folder) {
+        Path failures = failuresFile(folder);
+
+        ExtensionTester.execute(selectClass(MixedSources.class));
+
+        assertFalse(Files.exists(failures));
+    }
+
+    @Test
+    void should_keep_the_entries_of_cases_which_did_not_run(TemporaryFolder folder)
+            throws IOException {
+        Path failures = failuresFile(folder);
+        String other = "com.example.OtherTest#test(java.lang.String)\t/other.jsonl\t7";
+        Files.createDirectories(failures.getParent());
+        Files.write(failures, Collections.singletonList(other), UTF_8);
+
+        ExtensionTester.execute(selectClass(FailingCases.class));
+
+        List<String> entries = Files.readAllLines(failures, UTF_8);
+        assertEquals(4, entries.size());
+        assertEquals(other, entries.get(0));
+    }
+
+    private static List<String> sorted(List<String> values) {
+        List<String> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    private static Path failuresFile(TemporaryFolder folder) {
+        Path failures = folder.getRoot().toPath().resolve("target/failures.txt");
+        System.setProperty(FailureIndex.FILE_KEY, failures.toString());
+        return failures;
+    }
+
+    private static String entry(String method, String resource, String element) {
+        return FailingCases.class.getName()
+                + "#"
+                + method
+                + "("
+                + TestCase.class.getName()
+                + ")\t/io/github/glytching/junit/extension/json/"
+                + resource
+                + "\t"
+                + element;
+    }
+
+    public static class MixedSources {
+
+        @JsonFileSource(resources = "cases/apple.json")
+        @ValueSource(strings = "pear")
+        void mixed(Object value) {
+            fail("always fails");
+        }
+    }
+
+    public static class FailingCases {
+
+        static final List<String> run = new ArrayList<>();
+
+        static boolean fixed;
+
+        @JsonFileSource(resources = "upper_case_test_cases.jsonl", streaming = true)
+        void streamed(TestCase<String, String> testCase) {
+            run.add(testCase.getInput());
+            assertTrue(fixed || testCase.getInput().chars().allMatch(Character::isLetter));
+        }
+
+        @JsonFileSource(resources = {"cases/apple.json", "cases/pear.json"})
+        void whole(TestCase<String, String> testCase) {
+            run.add(testCase.getInput());
+            assertTrue(fixed || !testCase.getInput().equals("pear"));
+        }
+
+        @JsonFileSource(resources = "upper_case_test_cases.json")
+        void passing(TestCase<String, String> testCase) {
+            run.add(testCase.getInput());
+        }
+    }
+}
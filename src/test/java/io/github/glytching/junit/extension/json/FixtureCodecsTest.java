@@ -0,0 +1,42 @@
+package io.github.glytching.junit.extension.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.InputStream;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+public class FixtureCodecsTest {
+
+    @Test
+    void should_decode_gzip_out_of_the_box() {
+        assertTrue(FixtureCodecs.of("cases.json.gz") instanceof GzipFixtureCodec);
+        assertEquals("cases.jsonl", FixtureCodecs.decodedName("cases.jsonl.gz"));
+    }
+
+    @Test
+    void should_find_codecs_registered_as_services() {
+        assertTrue(FixtureCodecs.of("case.json.b64") instanceof Base64FixtureCodec);
+        assertEquals("case.json", FixtureCodecs.decodedName("case.json.b64"));
+    }
+
+    @Test
+    void should_leave_plain_json_undecoded() {
+        assertNull(FixtureCodecs.of("cases.json"));
+        assertEquals("cases.json", FixtureCodecs.decodedName("cases.json"));
+    }
+
+    /** Registered in {@code META-INF/services} of the test resources. */
+    public static class Base64FixtureCodec implements FixtureCodec {
+
+        @Override
+        public String extension() {
+            return ".b64";
+        }
+
+        @Override
+        public InputStream decode(InputStream encoded) {
+            return Base64.getDecoder().wrap(encoded);
+        }
+    }
+}
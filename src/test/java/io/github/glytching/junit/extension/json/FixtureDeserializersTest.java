@@ -0,0 +1,198 @@
+package io.github.glytching.junit.extension.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+import com.alibaba.fastjson2.JSON;
+import io.github.glytching.junit.extension.json.annotation.JsonFileSource;
+import io.github.glytching.junit.extension.json.annotation.ParameterBinding;
+import io.github.glytching.junit.extension.util.ExtensionTester;
+import java.lang.reflect.Type;
+import java.util.*;
+import lombok.Data;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.commons.PreconditionViolationException;
+
+public class FixtureDeserializersTest {
+
+    @AfterEach
+    void clearProperties() {
+        System.clearProperty(FixtureDeserializers.DESERIALIZER_KEY);
+        RecordingFixtureDeserializer.read.clear();
+        Cases.run.clear();
+        ProjectedCases.run.clear();
+    }
+
+    @Test
+    void should_find_deserializers_registered_as_services() {
+        assertTrue(FixtureDeserializers.of("recording") instanceof RecordingFixtureDeserializer);
+        assertNull(FixtureDeserializers.of(FixtureDeserializers.BUILT_IN));
+    }
+
+    @Test
+    void should_fail_on_an_unknown_deserializer() {
+        PreconditionViolationException e =
+                assertThrows(
+                        PreconditionViolationException.class,
+                        () -> FixtureDeserializers.of("gson"));
+
+        assertTrue(e.getMessage().contains("[recording]"), e.getMessage());
+    }
+
+    @Test
+    void should_report_a_name_taken_twice_once_it_is_selected() {
+        FixtureDeserializers.Registered registered =
+                new FixtureDeserializers.Registered(
+                        Arrays.asList(
+                                new RecordingFixtureDeserializer(),
+                                new RecordingFixtureDeserializer(),
+                                new PlainFixtureDeserializer()));
+
+        PreconditionViolationException e =
+                assertThrows(
+                        PreconditionViolationException.class, () -> registered.get("recording"));
+
+        assertTrue(e.getMessage().contains("is taken by both"), e.getMessage());
+        assertTrue(registered.get("plain") instanceof PlainFixtureDeserializer);
+    }
+
+    @Test
+    void should_read_with_the_deserializer_of_the_annotation() {
+        ExtensionTester.execute(selectClass(Cases.class));
+
+        assertEquals(sorted("apple", "x,y", "[\"apple\",2]"), sorted(Cases.run));
+        assertEquals(
+                sorted(
+                        "java.util.Map<java.lang.String, java.lang.Integer>:{\"apple\": 2}",
+                        Item.class.getName() + ":{\"name\": \"apple\", \"quantity\": 2}"),
+                sorted(RecordingFixtureDeserializer.read));
+    }
+
+    @Test
+    void should_read_with_the_deserializer_of_the_configuration() {
+        System.setProperty(FixtureDeserializers.DESERIALIZER_KEY, "recording");
+
+        ExtensionTester.execute(selectClass(Cases.class));
+
+        assertEquals(sorted("apple", "x,y", "[\"apple\",2]"), sorted(Cases.run));
+        assertEquals(
+                sorted(
+                        "java.util.Map<java.lang.String, java.lang.Integer>:{\"apple\": 2}",
+                        Item.class.getName() + ":{\"name\": \"apple\", \"quantity\": 2}",
+                        TestCase.class.getName()
+                                + "<java.lang.String, java.lang.String>:"
+                                + "{\"input\": \"apple\", \"output\": \"APPLE\"}"),
+                sorted(RecordingFixtureDeserializer.read));
+    }
+
+    @Test
+    void should_hand_the_part_selected_by_a_path_to_the_deserializer() {
+        ExtensionTester.execute(selectClass(ProjectedCases.class));
+
+        assertEquals(Collections.singletonList("pear"), ProjectedCases.run);
+        assertEquals(
+                Collections.singletonList(
+                        Item.class.getName() + ":{\"name\": \"pear\", \"quantity\": 1}"),
+                RecordingFixtureDeserializer.read);
+    }
+
+    private static List<String> sorted(String... values) {
+        return sorted(Arrays.asList(values));
+    }
+
+    private static List<String> sorted(List<String> values) {
+        List<String> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    @Data
+    public static class Item {
+        private String name;
+        private int quantity;
+    }
+
+    public static class Cases {
+
+        static final List<String> run = new ArrayList<>();
+
+        @JsonFileSource(resources = "cases/apple.json")
+        void whole(TestCase<String, String> testCase) {
+            run.add(testCase.getInput());
+        }
+
+        @JsonFileSource(
+                resources = "upper_case_test_cases.jsonl",
+                streaming = true,
+                path = "$.input",
+                deserializer = "recording")
+        void projected(String input) {
+            if (input.contains(",")) {
+                run.add(input);
+            }
+        }
+
+        @JsonFileSource(
+                resources = "bound_by_position.json",
+                binding = ParameterBinding.BY_POSITION,
+                deserializer = "recording")
+        void positional(String name, Map<String, Integer> quantities, Item item) {
+            run.add(JSON.toJSONString(Arrays.asList(name, quantities.get(item.getName()))));
+        }
+    }
+
+    public static class ProjectedCases {
+
+        static final List<String> run = new ArrayList<>();
+
+        @JsonFileSource(
+                resources = "api_response.json",
+                path = "$.data.items[1]",
+                deserializer = "recording")
+        void projected(Item item) {
+            run.add(item.getName());
+        }
+    }
+
+    /** Not registered as a service. */
+    public static class PlainFixtureDeserializer implements FixtureDeserializer {
+
+        @Override
+        public String name() {
+            return "plain";
+        }
+
+        @Override
+        public Object deserialize(byte[] json, Type type) {
+            return JSON.parseObject(json, type);
+        }
+    }
+
+    /**
+     * Registered in {@code META-INF/services} of the test resources. Reads anything but strings,
+     * which are left to the built in reader.
+     */
+    public static class RecordingFixtureDeserializer implements FixtureDeserializer {
+
+        static final List<String> read = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String name() {
+            return "recording";
+        }
+
+        @Override
+        public boolean supports(Type type) {
+            return type != String.class;
+        }
+
+        @Override
+        public Object deserialize(byte[] json, Type type) {
+            String text = new String(json, UTF_8);
+            read.add(type.getTypeName() + ":" + text.trim());
+            return JSON.parseObject(text, type);
+        }
+    }
+}
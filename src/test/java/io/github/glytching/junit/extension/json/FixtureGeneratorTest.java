@@ -0,0 +1,128 @@
+package io.github.glytching.junit.extension.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.annotation.JSONField;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import io.github.glytching.junit.extension.json.JsonFileArgumentsProviderTest.People;
+import io.github.glytching.junit.extension.json.JsonFileArgumentsProviderTest.RecursionClass;
+import io.github.glytching.junit.extension.json.annotation.ParameterBinding;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TemporaryFolderExtension.class)
+public class FixtureGeneratorTest {
+
+    @Test
+    void should_generate_the_same_fixture_from_the_same_seed(TemporaryFolder folder)
+            throws Exception {
+        Path first = folder.getRoot().toPath().resolve("first/case.json");
+        Path second = folder.getRoot().toPath().resolve("second/case.json");
+
+        new FixtureGenerator(7, 3).generate(first, binder("testCase", ParameterBinding.SINGLE));
+        new FixtureGenerator(7, 3).generate(second, binder("testCase", ParameterBinding.SINGLE));
+
+        assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+        JSONObject testCase = JSON.parseObject(new String(Files.readAllBytes(first), UTF_8));
+        assertNotNull(testCase.getString("input"));
+        assertNotNull(testCase.getJSONObject("output"));
+    }
+
+    @Test
+    void should_generate_a_case_for_each_binding(TemporaryFolder folder) throws Exception {
+        Path byName = folder.getRoot().toPath().resolve("by_name.json");
+        Path byPosition = folder.getRoot().toPath().resolve("by_position.json");
+
+        new FixtureGenerator(7, 3).generate(byName, binder("bound", ParameterBinding.BY_NAME));
+        new FixtureGenerator(7, 3)
+                .generate(byPosition, binder("bound", ParameterBinding.BY_POSITION));
+
+        JSONObject named = JSON.parseObject(new String(Files.readAllBytes(byName), UTF_8));
+        JSONArray positional = JSON.parseArray(new String(Files.readAllBytes(byPosition), UTF_8));
+        assertEquals(named.getString("name"), positional.getString(0));
+        assertEquals(named.getIntValue("count"), positional.getIntValue(1));
+    }
+
+    @Test
+    void should_bound_the_depth_of_recursive_types() {
+        Object[] values =
+                new FixtureGenerator(7, 2).valuesOf(new Class<?>[] {RecursionClass.class});
+
+        RecursionClass recursionClass = (RecursionClass) values[0];
+        assertNull(recursionClass.getRecursionClass());
+    }
+
+    @Test
+    void should_never_overwrite_an_existing_fixture(TemporaryFolder folder) throws IOException {
+        Path fixture = folder.createFile("case.json").toPath();
+        Files.write(fixture, "\"edited\"".getBytes(UTF_8));
+
+        new FixtureGenerator(7, 3).generate(fixture, binder("testCase", ParameterBinding.SINGLE));
+
+        assertEquals("\"edited\"", new String(Files.readAllBytes(fixture), UTF_8));
+    }
+
+    @Test
+    void should_generate_a_fixture_missed_by_parallel_tests_once(TemporaryFolder folder)
+            throws Exception {
+        Path fixture = folder.getRoot().toPath().resolve("parallel/case.json");
+        ParameterBinder binder = binder("testCase", ParameterBinding.SINGLE);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> generations = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                generations.add(
+                        executor.submit(
+                                () -> {
+                                    start.await();
+                                    new FixtureGenerator(7, 3).generate(fixture, binder);
+                                    return null;
+                                }));
+            }
+            start.countDown();
+            for (Future<?> generation : generations) {
+                generation.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertNotNull(JSON.parseObject(new String(Files.readAllBytes(fixture), UTF_8)));
+        try (Stream<Path> files = Files.list(fixture.getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    private static ParameterBinder binder(String methodName, ParameterBinding binding) {
+        for (Method method : Methods.class.getDeclaredMethods()) {
+            if (method.getName().equals(methodName)) {
+                return ParameterBinder.of(method, binding, parameter -> false);
+            }
+        }
+        throw new IllegalArgumentException(methodName);
+    }
+
+    @SuppressWarnings("unused")
+    static class Methods {
+
+        void testCase(TestCase<String, People> testCase) {}
+
+        void bound(
+                @JSONField(name = "name") String name,
+                @JSONField(name = "count") int count) {}
+    }
+}
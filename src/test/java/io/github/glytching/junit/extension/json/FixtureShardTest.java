@@ -0,0 +1,121 @@
+package io.github.glytching.junit.extension.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.PreconditionViolationException;
+
+public class FixtureShardTest {
+
+    private static final String CASES = "[1, 2, 3, 4, 5, 6, 7, 8, 9, 10]";
+
+    @Test
+    void should_deal_elements_out_in_turn() {
+        assertEquals(
+                Arrays.asList("2", "5", "8"),
+                elements(new FixtureShard(3, 1, FixtureShard.Strategy.INDEX), CASES));
+    }
+
+    @Test
+    void should_run_every_case_exactly_once_across_shards() {
+        for (FixtureShard.Strategy strategy : FixtureShard.Strategy.values()) {
+            List<String> all = new ArrayList<>();
+            for (int index = 0; index < 3; index++) {
+                all.addAll(elements(new FixtureShard(3, index, strategy), CASES));
+            }
+            Collections.sort(all, Comparator.comparing(Integer::valueOf));
+            assertEquals(elements(null, CASES), all, strategy.name());
+        }
+    }
+
+    @Test
+    void should_keep_counting_cases_across_resources() {
+        FixtureShard shard = new FixtureShard(2, 1, FixtureShard.Strategy.INDEX);
+
+        assertEquals(Collections.singletonList("2"), elements(shard, "[1, 2, 3]"));
+        assertEquals(Arrays.asList("4", "6"), elements(shard, "[4, 5, 6]"));
+    }
+
+    @Test
+    void should_assign_indexed_elements_as_it_assigns_read_elements() {
+        byte[][] cases = new byte[10][];
+        for (int i = 0; i < cases.length; i++) {
+            cases[i] = String.valueOf(i + 1).getBytes(UTF_8);
+        }
+        for (FixtureShard.Strategy strategy : FixtureShard.Strategy.values()) {
+            FixtureShard read = new FixtureShard(3, 1, strategy);
+            FixtureShard indexed = new FixtureShard(3, 1, strategy);
+            elements(read, "[0, 0]");
+            indexed.indexes(2, it -> "0".getBytes(UTF_8)).count();
+
+            List<String> values = new ArrayList<>();
+            indexed.indexes(cases.length, it -> cases[it])
+                    .forEach(it -> values.add(new String(cases[it], UTF_8)));
+
+            assertEquals(elements(read, CASES), values, strategy.name());
+        }
+    }
+
+    @Test
+    void should_shard_resources_when_not_streaming() {
+        String[] resources = {"/a.json", "/b.json", "/c.json"};
+
+        assertArrayEquals(
+                new String[] {"/a.json", "/c.json"},
+                new FixtureShard(2, 0, FixtureShard.Strategy.INDEX).resources(resources));
+    }
+
+    @Test
+    void should_assign_resources_by_the_hash_of_their_path() {
+        String[] resources = {"/cases/d.json", "/cases/a.json", "/cases/b.json", "/cases/c.json"};
+
+        // "/cases/a.json".hashCode() and "/cases/c.json".hashCode() are even
+        assertArrayEquals(
+                new String[] {"/cases/a.json", "/cases/c.json"},
+                new FixtureShard(2, 0, FixtureShard.Strategy.HASH).resources(resources));
+        assertArrayEquals(
+                new String[] {"/cases/d.json", "/cases/b.json"},
+                new FixtureShard(2, 1, FixtureShard.Strategy.HASH).resources(resources));
+    }
+
+    @Test
+    void should_read_the_shard_from_the_configuration() {
+        ExtensionContext context = mock(ExtensionContext.class);
+        when(context.getConfigurationParameter(FixtureShard.COUNT_KEY))
+                .thenReturn(Optional.of("3"));
+        when(context.getConfigurationParameter(FixtureShard.INDEX_KEY))
+                .thenReturn(Optional.of("2"));
+
+        FixtureShard shard = FixtureShard.of(context);
+
+        assertEquals(Arrays.asList("3", "6", "9"), elements(shard, CASES));
+    }
+
+    @Test
+    void should_not_shard_without_configuration() {
+        assertNull(FixtureShard.of(mock(ExtensionContext.class)));
+    }
+
+    @Test
+    void should_reject_an_index_out_of_range() {
+        assertThrows(
+                PreconditionViolationException.class,
+                () -> new FixtureShard(2, 2, FixtureShard.Strategy.INDEX));
+    }
+
+    private static List<String> elements(FixtureShard shard, String document) {
+        JsonElementReader reader =
+                JsonElementReader.of(
+                        "cases.json", new ByteArrayInputStream(document.getBytes(UTF_8)));
+        Iterator<byte[]> elements = shard == null ? reader : shard.elements(reader);
+        List<String> values = new ArrayList<>();
+        elements.forEachRemaining(element -> values.add(new String(element, UTF_8)));
+        return values;
+    }
+}
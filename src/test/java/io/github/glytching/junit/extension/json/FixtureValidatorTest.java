@@ -0,0 +1,160 @@
+package io.github.glytching.junit.extension.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.schema.JSONSchema;
+import io.github.glytching.junit.extension.json.annotation.JsonFileSource;
+import io.github.glytching.junit.extension.util.ExtensionTester;
+import io.github.glytching.junit.extension.util.RecordingExecutionListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.Data;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.engine.TestExecutionResult;
+
+public class FixtureValidatorTest {
+
+    @AfterEach
+    void clearProperties() {
+        System.clearProperty(FixtureValidator.VALIDATE_KEY);
+        InvalidCases.run.clear();
+        ValidCases.run.clear();
+    }
+
+    @Test
+    void should_derive_a_schema_checking_the_shape_of_a_type() {
+        JSONSchema schema = JSONSchema.of(TypeSchema.of(Order.class));
+
+        assertTrue(valid(schema, "{\"id\": \"o-1\", \"items\": [{\"quantity\": 1}]}"));
+        assertTrue(valid(schema, "{\"id\": 1, \"items\": [{\"quantity\": \"1\"}], \"note\": 2}"));
+        assertTrue(valid(schema, "{\"items\": null}"));
+        assertFalse(valid(schema, "[]"));
+        assertFalse(valid(schema, "{\"items\": {\"quantity\": 1}}"));
+        assertFalse(valid(schema, "{\"items\": [{\"quantity\": [1]}]}"));
+        assertFalse(valid(schema, "{\"items\": [{\"quantity\": 1.5}]}"));
+    }
+
+    @Test
+    void should_fail_only_the_method_with_an_invalid_case() {
+        System.setProperty(FixtureValidator.VALIDATE_KEY, "true");
+
+        RecordingExecutionListener listener =
+                ExtensionTester.execute(selectClass(InvalidCases.class));
+
+        List<String> failures = failuresOf(listener);
+        assertEquals(1, failures.size());
+        String failure = failures.get(0);
+        assertEquals(
+                "Invalid fixture"
+                        + " /io/github/glytching/junit/extension/json/invalid/orders.jsonl,"
+                        + " case 2 (run it alone with -D"
+                        + CaseSelection.CASES_KEY
+                        + "=2): ",
+                failure.substring(0, failure.indexOf("): ") + 3));
+        assertEquals(Collections.singletonList("apple"), InvalidCases.run);
+    }
+
+    @Test
+    void should_not_check_cases_unless_asked_to() {
+        ExtensionTester.execute(selectClass(InvalidCases.class));
+
+        assertTrue(InvalidCases.run.contains("apple"));
+    }
+
+    @Test
+    void should_check_cases_against_a_schema_resource() {
+        RecordingExecutionListener listener =
+                ExtensionTester.execute(selectClass(ValidCases.class));
+
+        List<String> failures = failuresOf(listener);
+        assertEquals(1, failures.size());
+        assertTrue(
+                failures.get(0)
+                        .startsWith(
+                                "Invalid fixture"
+                                        + " /io/github/glytching/junit/extension/json/invalid/"
+                                        + "unnamed_orders.json, case 1 "),
+                failures.get(0));
+        assertTrue(ValidCases.run.isEmpty());
+    }
+
+    @Test
+    void should_run_the_cases_of_a_class_once_they_are_valid() {
+        System.setProperty(FixtureValidator.VALIDATE_KEY, "true");
+
+        RecordingExecutionListener listener =
+                ExtensionTester.execute(selectClass(ValidCases.Fixed.class));
+
+        assertTrue(failuresOf(listener).isEmpty());
+        assertEquals(6, ValidCases.run.size());
+    }
+
+    private static boolean valid(JSONSchema schema, String json) {
+        return schema.validate(JSON.parse(json)).isSuccess();
+    }
+
+    private static List<String> failuresOf(RecordingExecutionListener listener) {
+        return listener.getFinishedEventsByStatus(TestExecutionResult.Status.FAILED)
+                .map(event -> event.getPayload(TestExecutionResult.class).get())
+                .map(result -> result.getThrowable().get().getMessage())
+                .collect(Collectors.toList());
+    }
+
+    @Data
+    public static class Order {
+        private String id;
+        private List<Item> items;
+    }
+
+    @Data
+    public static class Item {
+        private String name;
+        private int quantity;
+    }
+
+    public static class InvalidCases {
+
+        static final List<String> run = new ArrayList<>();
+
+        @JsonFileSource(resources = "invalid/orders.jsonl", streaming = true)
+        void streamed(Order order) {
+            run.add(order.getId());
+        }
+
+        @JsonFileSource(resources = "cases/apple.json")
+        void whole(TestCase<String, String> testCase) {
+            run.add(testCase.getInput());
+        }
+    }
+
+    public static class ValidCases {
+
+        static final List<String> run = new ArrayList<>();
+
+        @JsonFileSource(
+                resources = "invalid/unnamed_orders.json",
+                streaming = true,
+                schema = "invalid/order.schema.json")
+        void streamed(Order order) {
+            run.add(order.getId());
+        }
+
+        public static class Fixed {
+
+            @JsonFileSource(resources = "invalid/orders.jsonl", streaming = true, path = "$.id")
+            void projected(String id) {
+                run.add(id);
+            }
+
+            @JsonFileSource(resources = "upper_case_test_cases.jsonl.gz", streaming = true)
+            void compressed(TestCase<String, String> testCase) {
+                run.add(testCase.getInput());
+            }
+        }
+    }
+}
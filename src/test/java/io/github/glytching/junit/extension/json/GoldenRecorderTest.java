@@ -0,0 +1,139 @@
+package io.github.glytching.junit.extension.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TemporaryFolderExtension.class)
+public class GoldenRecorderTest {
+
+    @Test
+    void should_record_the_output_of_a_whole_document(TemporaryFolder folder)
+            throws IOException {
+        Path fixture = write(folder, "case.json", "{\"input\": \"a\", \"output\": \"?\"}");
+        GoldenRecorder recorder = new GoldenRecorder(folder.getRoot().toPath());
+
+        recorder.record("/case.json", GoldenRecorder.WHOLE_RESOURCE, "A");
+
+        assertEquals("{\"input\": \"a\", \"output\": \"?\"}", read(fixture));
+        recorder.close();
+        JSONObject testCase = JSON.parseObject(read(fixture));
+        assertEquals("a", testCase.getString("input"));
+        assertEquals("A", testCase.getString("output"));
+    }
+
+    @Test
+    void should_record_the_outputs_of_array_elements(TemporaryFolder folder) throws IOException {
+        Path fixture =
+                write(
+                        folder,
+                        "cases.json",
+                        "[{\"input\": \"a\"}, {\"input\": \"b\"}, {\"input\": \"c\"}]");
+        GoldenRecorder recorder = new GoldenRecorder(folder.getRoot().toPath());
+
+        recorder.record("/cases.json", 0, "A");
+        recorder.record("/cases.json", 2, Collections.singletonMap("value", "C"));
+        recorder.close();
+
+        JSONArray testCases = JSON.parseArray(read(fixture));
+        assertEquals("A", testCases.getJSONObject(0).getString("output"));
+        assertFalse(testCases.getJSONObject(1).containsKey("output"));
+        assertEquals("C", testCases.getJSONObject(2).getJSONObject("output").getString("value"));
+    }
+
+    @Test
+    void should_rewrite_the_recorded_lines_of_json_lines_only(TemporaryFolder folder)
+            throws IOException {
+        Path fixture =
+                write(
+                        folder,
+                        "cases.jsonl",
+                        "{\"input\": \"a\"}\n\n{ \"input\" : \"b\" }\n{\"input\": \"c\"}\n");
+        GoldenRecorder recorder = new GoldenRecorder(folder.getRoot().toPath());
+
+        recorder.record("/cases.jsonl", 0, "A");
+        recorder.record("/cases.jsonl", 2, null);
+        recorder.close();
+
+        assertEquals(
+                "{\"input\": \"a\", \"output\": \"A\"}\n\n"
+                        + "{ \"input\" : \"b\" }\n"
+                        + "{\"input\": \"c\", \"output\": null}\n",
+                read(fixture));
+    }
+
+    @Test
+    void should_record_the_output_of_a_first_line_after_a_byte_order_mark(TemporaryFolder folder)
+            throws IOException {
+        Path fixture =
+                write(folder, "cases.jsonl", "\uFEFF{\"input\": \"a\"}\n{\"input\": \"b\"}\n");
+        GoldenRecorder recorder = new GoldenRecorder(folder.getRoot().toPath());
+
+        recorder.record("/cases.jsonl", 0, "A");
+        recorder.close();
+
+        assertEquals(
+                "\uFEFF{\"input\": \"a\", \"output\": \"A\"}\n{\"input\": \"b\"}\n",
+                read(fixture));
+    }
+
+    @Test
+    void should_leave_the_formatting_of_a_document_as_it_is(TemporaryFolder folder)
+            throws IOException {
+        Path fixture =
+                write(
+                        folder,
+                        "cases.json",
+                        "[\n"
+                                + "  {\"input\": {\"text\": \"a, [b]\"}, \"output\": \"?\"},\n"
+                                + "  {\n    \"input\": \"c\"\n  },\n"
+                                + "  {}\n"
+                                + "]\n");
+        GoldenRecorder recorder = new GoldenRecorder(folder.getRoot().toPath());
+
+        recorder.record("/cases.json", 0, Collections.singletonList("A"));
+        recorder.record("/cases.json", 1, "C");
+        recorder.record("/cases.json", 2, null);
+        recorder.close();
+
+        assertEquals(
+                "[\n"
+                        + "  {\"input\": {\"text\": \"a, [b]\"}, \"output\": [\"A\"]},\n"
+                        + "  {\n    \"input\": \"c\", \"output\": \"C\"\n  },\n"
+                        + "  {\"output\": null}\n"
+                        + "]\n",
+                read(fixture));
+    }
+
+    @Test
+    void should_leave_a_missing_fixture_alone(TemporaryFolder folder) throws IOException {
+        GoldenRecorder recorder = new GoldenRecorder(folder.getRoot().toPath());
+
+        recorder.record("/missing.json", GoldenRecorder.WHOLE_RESOURCE, "A");
+        recorder.close();
+
+        assertFalse(Files.exists(folder.getRoot().toPath().resolve("missing.json")));
+    }
+
+    private static Path write(TemporaryFolder folder, String name, String content)
+            throws IOException {
+        Path fixture = folder.createFile(name).toPath();
+        Files.write(fixture, content.getBytes(UTF_8));
+        return fixture;
+    }
+
+    private static String read(Path fixture) throws IOException {
+        return new String(Files.readAllBytes(fixture), UTF_8);
+    }
+}
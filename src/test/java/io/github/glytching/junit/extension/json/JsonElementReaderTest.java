@@ -0,0 +1,154 @@
+package io.github.glytching.junit.extension.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.alibaba.fastjson2.JSONException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class JsonElementReaderTest {
+
+    @Test
+    void should_read_each_element_of_an_array() {
+        List<String> elements = readAll("cases.json", " [ {\"a\": [1, {\"b\": \"]\"}]}, \"x,\\\"y\", 12 , true, null ] ");
+
+        assertEquals(5, elements.size());
+        assertEquals("{\"a\": [1, {\"b\": \"]\"}]}", elements.get(0));
+        assertEquals("\"x,\\\"y\"", elements.get(1));
+        assertEquals("12", elements.get(2));
+        assertEquals("true", elements.get(3));
+        assertEquals("null", elements.get(4));
+    }
+
+    @Test
+    void should_read_an_empty_array_as_no_elements() {
+        assertTrue(readAll("cases.json", "[ ]").isEmpty());
+    }
+
+    @Test
+    void should_read_a_document_which_is_not_an_array_as_one_element() {
+        List<String> elements = readAll("case.json", "\uFEFF{\"input\": [1, 2]}\n");
+
+        assertEquals(1, elements.size());
+        assertEquals("{\"input\": [1, 2]}", elements.get(0));
+    }
+
+    @Test
+    void should_read_each_non_blank_line_of_json_lines() {
+        List<String> elements = readAll("cases.jsonl", "{\"a\": 1}\n\n  {\"a\": 2}\r\n[3]");
+
+        assertEquals(3, elements.size());
+        assertEquals("{\"a\": 1}", elements.get(0));
+        assertEquals("{\"a\": 2}\r", elements.get(1));
+        assertEquals("[3]", elements.get(2));
+    }
+
+    @Test
+    void should_fail_on_a_truncated_array() {
+        JsonElementReader reader = reader("cases.json", "[{\"a\": 1}, {\"a\": ");
+
+        reader.next();
+        assertThrows(JSONException.class, reader::next);
+    }
+
+    @Test
+    void should_fail_on_elements_not_separated_by_a_comma() {
+        JsonElementReader reader = reader("cases.json", "[1 2]");
+
+        assertEquals("1", new String(reader.next(), UTF_8));
+        JSONException e = assertThrows(JSONException.class, reader::next);
+        assertTrue(e.getMessage().startsWith("Expected ',' or ']' after an array element"));
+    }
+
+    @Test
+    void should_fail_on_an_array_which_is_not_closed() {
+        assertThrows(JSONException.class, () -> readAll("cases.json", "[1, 2"));
+        assertThrows(JSONException.class, () -> readAll("cases.json", "[1, ]"));
+        assertThrows(JSONException.class, () -> readAll("case.json", "{\"a\": 1} {\"a\": 2}"));
+    }
+
+    @Test
+    void should_skip_a_byte_order_mark_at_the_start_of_the_document_only() {
+        assertEquals(
+                Arrays.asList("1", "2"), readAll("cases.json", "\uFEFF[1, 2]"));
+        // left in the element, for the parser to reject
+        assertEquals(
+                Arrays.asList("1", "\uFEFF2"), readAll("cases.json", "[1, \uFEFF2]"));
+        assertThrows(JSONException.class, () -> readAll("cases.json", "[1, 2]\uFEFF"));
+        assertEquals(
+                Arrays.asList("{}", "\uFEFF{}"), readAll("cases.jsonl", "\uFEFF{}\n\uFEFF{}"));
+    }
+
+    @Test
+    void should_return_an_element_before_the_rest_of_the_document_is_read() {
+        byte[] head = "[{\"a\": 1}, ".getBytes(UTF_8);
+        InputStream inputStream =
+                new InputStream() {
+                    private int position;
+
+                    @Override
+                    public int read() throws IOException {
+                        if (position == head.length) {
+                            throw new IOException("The document was read beyond the first element");
+                        }
+                        return head[position++];
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        if (position == head.length) {
+                            throw new IOException("The document was read beyond the first element");
+                        }
+                        int count = Math.min(len, head.length - position);
+                        System.arraycopy(head, position, b, off, count);
+                        position += count;
+                        return count;
+                    }
+                };
+
+        JsonElementReader reader = JsonElementReader.of("cases.json", inputStream);
+
+        assertEquals("{\"a\": 1}", new String(reader.next(), UTF_8));
+    }
+
+    @Test
+    void should_skip_elements() {
+        JsonElementReader reader = reader("cases.json", "[{\"a\": [1, \"]\"]}, 2, 3]");
+
+        assertTrue(reader.skip());
+        assertEquals("2", new String(reader.next(), UTF_8));
+        assertTrue(reader.hasNext());
+        assertTrue(reader.skip());
+        assertFalse(reader.skip());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    void should_know_the_index_of_the_last_element_read() {
+        JsonElementReader reader = reader("cases.jsonl", "{\"a\": 1}\n\n{\"a\": 2}\n{\"a\": 3}\n");
+
+        assertTrue(reader.skip());
+        assertEquals("{\"a\": 2}", new String(reader.next(), UTF_8));
+        assertEquals(1, reader.index());
+        reader.next();
+        assertEquals(2, reader.index());
+    }
+
+    private static List<String> readAll(String resource, String document) {
+        List<String> elements = new ArrayList<>();
+        try (JsonElementReader reader = reader(resource, document)) {
+            reader.forEachRemaining(element -> elements.add(new String(element, UTF_8)));
+        }
+        return elements;
+    }
+
+    private static JsonElementReader reader(String resource, String document) {
+        return JsonElementReader.of(resource, new ByteArrayInputStream(document.getBytes(UTF_8)));
+    }
+}
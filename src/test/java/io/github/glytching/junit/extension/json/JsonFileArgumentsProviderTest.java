@@ -3,12 +3,18 @@ package io.github.glytching.junit.extension.json;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.alibaba.fastjson2.TypeReference;
+import com.alibaba.fastjson2.annotation.JSONField;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
 import io.github.glytching.junit.extension.json.annotation.JsonFileSource;
+import io.github.glytching.junit.extension.json.annotation.ParameterBinding;
 import java.util.List;
 import java.util.Map;
 import lombok.Data;
 import org.jeasy.random.EasyRandom;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 public class JsonFileArgumentsProviderTest {
 
@@ -31,6 +37,14 @@ public class JsonFileArgumentsProviderTest {
         assertEquals(0,  testCase.getOutput(new TypeReference<List<Integer>>() {}).size());
     }
 
+    @JsonFileSource(
+            resources = {"list_testCase.json", "string_test_case.json", "list_testCase.json"},
+            prefetch = 2)
+    void should_parse_following_resources_ahead_when_prefetching(TestCase<?, ?> testCase) {
+        assertNotNull(testCase.getInput());
+        assertNotNull(testCase.getOutput());
+    }
+
     @JsonFileSource(resources = {"map_testCase.json"})
     void should_parse_Map_type_test_case(
             TestCase<Map<String, Integer>, Map<String, Integer>> testCase) {
@@ -38,7 +52,93 @@ public class JsonFileArgumentsProviderTest {
         assertNull(testCase.getOutput().get("key2"));
     }
 
+    @JsonFileSource(resources = {"typed_test_case.json"})
+    void should_parse_nested_generic_types_into_their_declared_types(
+            TestCase<List<Item>, Map<String, Item>> testCase) {
+        Item first = testCase.getInput().get(0);
+        assertEquals("apple", first.getName());
+        assertEquals(2, first.getQuantity());
+        assertEquals(first, testCase.getOutput().get("apple"));
+    }
+
+    @JsonFileSource(resources = {"bound_by_name.json"}, binding = ParameterBinding.BY_NAME)
+    void should_bind_properties_onto_parameters_by_name(
+            @JSONField(name = "items") List<Item> items,
+            @JSONField(name = "total") int total,
+            @JSONField(name = "absent") long absent,
+            TestInfo testInfo) {
+        assertEquals(2, items.size());
+        assertEquals("apple", items.get(0).getName());
+        assertEquals(3, total);
+        assertEquals(0, absent);
+        assertNotNull(testInfo);
+    }
+
+    @ExtendWith(TemporaryFolderExtension.class)
+    @JsonFileSource(resources = {"bound_by_name.json"}, binding = ParameterBinding.BY_NAME)
+    void should_leave_parameters_resolved_by_a_declared_extension_to_it(
+            @JSONField(name = "total") int total, TemporaryFolder temporaryFolder) {
+        assertEquals(3, total);
+        assertNotNull(temporaryFolder);
+    }
+
+    @JsonFileSource(resources = {"cases/**/*.json"})
+    void should_supply_each_resource_matching_a_glob(TestCase<String, String> testCase) {
+        assertEquals(testCase.getOutput(), testCase.getInput().toUpperCase());
+    }
+
+    @JsonFileSource(resources = {"cases/nested/"})
+    void should_supply_each_resource_in_a_directory(TestCase<String, String> testCase) {
+        assertEquals("plum", testCase.getInput());
+    }
+
+    @JsonFileSource(resources = {"api_response.json"}, path = "$.data.items")
+    void should_bind_the_part_of_a_case_selected_by_a_path(List<Item> items) {
+        assertEquals(2, items.size());
+        assertEquals("pear", items.get(1).getName());
+    }
+
+    @JsonFileSource(
+            resources = {"api_response.json"},
+            path = "$.data",
+            compile = false,
+            binding = ParameterBinding.BY_NAME)
+    void should_bind_the_fields_selected_by_a_path_by_name(
+            @JSONField(name = "items") List<Item> items, @JSONField(name = "total") int total) {
+        assertEquals(total, items.stream().mapToInt(Item::getQuantity).sum());
+    }
+
+    @JsonFileSource(resources = {"api_response.json"}, path = "$.data.missing")
+    void should_bind_null_when_a_path_selects_nothing(Item item) {
+        assertNull(item);
+    }
+
+    @JsonFileSource(
+            resources = {"bound_by_position.jsonl"},
+            streaming = true,
+            binding = ParameterBinding.BY_POSITION)
+    void should_bind_elements_onto_parameters_by_position(
+            String name, Map<String, Integer> quantities, Item item) {
+        assertEquals(item.getQuantity(), quantities.get(name).intValue());
+        assertEquals(name, item.getName());
+    }
+
+    @JsonFileSource(
+            resources = {"bound_by_position.json"},
+            compile = true,
+            binding = ParameterBinding.BY_POSITION)
+    void should_bind_a_compiled_resource_onto_parameters_by_position(
+            String name, Map<String, Integer> quantities, Item item) {
+        assertEquals(item.getQuantity(), quantities.get(name).intValue());
+        assertEquals(name, item.getName());
+    }
+
     @JsonFileSource(resources = {"people_input.json"})
+    void should_parse_People_input_without_compiling_it(People people) {
+        assertEquals("lele", people.name);
+    }
+
+    @JsonFileSource(resources = {"people_input.json"}, compile = true)
     void should_parse_People_input(People people) {
         assertEquals("lele", people.name);
     }
@@ -50,6 +150,45 @@ public class JsonFileArgumentsProviderTest {
         assertNotNull(recursionClass.getPeople());
     }
 
+    @JsonFileSource(resources = {"unicode_test_case.json"})
+    void should_read_a_resource_as_utf_8_whatever_the_default_charset(
+            TestCase<String, String> testCase) {
+        assertEquals("größe", testCase.getInput());
+        assertEquals("GRÖSSE", testCase.getOutput());
+    }
+
+    @JsonFileSource(resources = {"upper_case_test_cases.json"}, streaming = true)
+    void should_supply_each_array_element_as_a_test_case(TestCase<String, String> testCase) {
+        assertEquals(testCase.getOutput(), testCase.getInput().toUpperCase());
+    }
+
+    @JsonFileSource(resources = {"upper_case_test_cases.jsonl"}, streaming = true)
+    void should_supply_each_json_line_as_a_test_case(TestCase<String, String> testCase) {
+        assertEquals(testCase.getOutput(), testCase.getInput().toUpperCase());
+    }
+
+    @JsonFileSource(resources = {"upper_case_test_cases.jsonl.gz"}, streaming = true)
+    void should_supply_each_line_of_a_compressed_resource_as_a_test_case(
+            TestCase<String, String> testCase) {
+        assertEquals(testCase.getOutput(), testCase.getInput().toUpperCase());
+    }
+
+    @JsonFileSource(resources = {"people_input.json.gz"})
+    void should_parse_a_compressed_resource(People people) {
+        assertEquals("lele", people.name);
+    }
+
+    @JsonFileSource(resources = {"string_test_case.json.b64"})
+    void should_parse_a_resource_decoded_by_a_registered_codec(TestCase<String, String> testCase) {
+        assertEquals("eOMtThyhVNLWUZNRcBaQKxI", testCase.getInput());
+        assertEquals("yedUsFwdkelQbxeTeQOvaScfqIOOmaa", testCase.getOutput());
+    }
+
+    @JsonFileSource(resources = {"people_input.json"}, streaming = true)
+    void should_supply_a_non_array_resource_as_one_test_case_when_streaming(People people) {
+        assertEquals("lele", people.name);
+    }
+
     @Test
     void set_null_if_recursive() {
         RecursionClass recursionClass = new EasyRandom().nextObject(RecursionClass.class);
@@ -66,6 +205,12 @@ public class JsonFileArgumentsProviderTest {
         private List<RecursionClass> recursionClasses;
     }
 
+    @Data
+    public static class Item {
+        private String name;
+        private int quantity;
+    }
+
     public static class People {
         public final String id = "02";
         public final String name = "lele";
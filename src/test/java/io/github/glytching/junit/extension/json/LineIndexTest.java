@@ -0,0 +1,107 @@
+package io.github.glytching.junit.extension.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(TemporaryFolderExtension.class)
+public class LineIndexTest {
+
+    private static final String CASES = "﻿{\"a\": 1}\r\n\n  \n  {\"a\": 2}\n{\"a\": \"3\\n\"}";
+
+    @Test
+    void should_read_each_element_as_the_element_reader_does(TemporaryFolder folder)
+            throws IOException {
+        List<String> expected = new ArrayList<>();
+        JsonElementReader.of("cases.jsonl", new ByteArrayInputStream(CASES.getBytes(UTF_8)))
+                .forEachRemaining(element -> expected.add(new String(element, UTF_8)));
+        List<String> indexed = new ArrayList<>();
+        try (LineIndex index = LineIndex.of(write(folder, CASES))) {
+            for (int i = index.size() - 1; i >= 0; i--) {
+                indexed.add(0, new String(index.element(i), UTF_8));
+            }
+        }
+        assertEquals(3, indexed.size());
+        assertEquals(expected, indexed);
+    }
+
+    @Test
+    void should_reuse_the_index_of_an_unchanged_fixture(TemporaryFolder folder)
+            throws IOException {
+        Path fixture = write(folder, CASES);
+        build(fixture);
+        Path indexFile = LineIndex.indexPathOf(fixture);
+        byte[] built = Files.readAllBytes(indexFile);
+        FileTime indexed = FileTime.fromMillis(Files.getLastModifiedTime(indexFile).toMillis());
+        Files.setLastModifiedTime(indexFile, FileTime.fromMillis(indexed.toMillis() - 60_000));
+
+        assertEquals("{\"a\": 2}", element(fixture, 1));
+        assertArrayEquals(built, Files.readAllBytes(indexFile));
+        assertNotEquals(indexed, Files.getLastModifiedTime(indexFile));
+    }
+
+    @Test
+    void should_index_an_edited_fixture_again(TemporaryFolder folder) throws IOException {
+        Path fixture = write(folder, CASES);
+        build(fixture);
+
+        Files.write(fixture, "{\"b\": 1}\n{\"b\": 2}\n".getBytes(UTF_8));
+
+        try (LineIndex index = LineIndex.of(fixture)) {
+            assertEquals(2, index.size());
+            assertEquals("{\"b\": 2}", new String(index.element(1), UTF_8));
+        }
+    }
+
+    @Test
+    void should_read_an_element_beyond_two_gigabytes(TemporaryFolder folder) throws IOException {
+        Path fixture = folder.createFile("cases.jsonl").toPath();
+        long offset = 3L << 30;
+        try (FileChannel channel = FileChannel.open(fixture, StandardOpenOption.WRITE)) {
+            // sparse, only the element itself takes space
+            channel.write(ByteBuffer.wrap("{\"a\": \"far\"}\n".getBytes(UTF_8)), offset);
+        }
+        // indexed up front rather than by scanning gigabytes of nothing
+        LineIndex.write(
+                LineIndex.indexPathOf(fixture),
+                Files.size(fixture),
+                Files.getLastModifiedTime(fixture).toMillis(),
+                LongBuffer.wrap(new long[] {offset}));
+
+        try (LineIndex index = LineIndex.of(fixture)) {
+            assertEquals(1, index.size());
+            assertEquals("{\"a\": \"far\"}", new String(index.element(0), UTF_8));
+        }
+    }
+
+    private static Path write(TemporaryFolder folder, String content) throws IOException {
+        Path fixture = folder.createFile("cases.jsonl").toPath();
+        Files.write(fixture, content.getBytes(UTF_8));
+        return fixture;
+    }
+
+    private static void build(Path fixture) throws IOException {
+        LineIndex.of(fixture).close();
+    }
+
+    private static String element(Path fixture, int element) throws IOException {
+        try (LineIndex index = LineIndex.of(fixture)) {
+            return new String(index.element(element), UTF_8);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.glytching.junit.extension.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.alibaba.fastjson2.JSONReader;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.commons.PreconditionViolationException;
+
+public class MemberPathTest {
+
+    private static final String JSON =
+            "{\"meta\": {\"id\": 1},"
+                    + " \"data\": {\"items\": [{\"name\": \"apple\"}, {\"name\": \"pear\"}]}}";
+
+    @Test
+    void should_move_the_reader_onto_the_selected_value() {
+        assertEquals("pear", select("$.data.items[1].name"));
+        assertEquals("pear", select("$['data'].items[1]['name']"));
+    }
+
+    @Test
+    void should_select_nothing_for_a_missing_member_or_element() {
+        assertFalse(MemberPath.of("$.data.missing").select(JSONReader.of(JSON)));
+        assertFalse(MemberPath.of("$.data.items[2]").select(JSONReader.of(JSON)));
+        assertFalse(MemberPath.of("$.meta.id.value").select(JSONReader.of(JSON)));
+    }
+
+    @Test
+    void should_only_accept_member_names_and_array_indexes() {
+        assertNotNull(MemberPath.of("$"));
+        assertNull(MemberPath.of("$.data.items[*]"));
+        assertNull(MemberPath.of("$..name"));
+        assertNull(MemberPath.of("$.data.items[?(@.name == 'pear')]"));
+        assertNull(MemberPath.of("data.items"));
+    }
+
+    @Test
+    void should_fail_on_an_index_out_of_range() {
+        PreconditionViolationException e =
+                assertThrows(
+                        PreconditionViolationException.class,
+                        () -> MemberPath.of("$.items[2147483648]"));
+
+        assertTrue(e.getMessage().contains("$.items[2147483648]"), e.getMessage());
+    }
+
+    private static String select(String path) {
+        JSONReader reader = JSONReader.of(JSON);
+        assertTrue(MemberPath.of(path).select(reader));
+        return reader.readString();
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.glytching.junit.extension.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.github.glytching.junit.extension.json.annotation.JsonFileSource;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+public class MethodMetadataTest {
+
+    @Test
+    void should_derive_the_metadata_of_a_method_once() throws Exception {
+        Method method = Methods.class.getDeclaredMethod("single", String.class);
+        JsonFileSource source = method.getAnnotation(JsonFileSource.class);
+
+        MethodMetadata metadata = MethodMetadata.of(contextOf(Methods.class), method, source);
+
+        assertSame(metadata, MethodMetadata.of(contextOf(Methods.class), method, source));
+        assertArrayEquals(
+                new String[] {
+                    "/io/github/glytching/junit/extension/json/string_test_case.json",
+                    "/io/github/glytching/junit/extension/json/people_input.json"
+                },
+                metadata.resourcePaths());
+        assertEquals("SINGLE(java.lang.String)", metadata.casesKey());
+        assertNull(metadata.projection());
+    }
+
+    @Test
+    void should_derive_the_metadata_of_each_test_class_apart() throws Exception {
+        Method method = Methods.class.getDeclaredMethod("projected", String.class);
+        JsonFileSource source = method.getAnnotation(JsonFileSource.class);
+
+        MethodMetadata metadata = MethodMetadata.of(contextOf(Methods.class), method, source);
+        MethodMetadata inherited = MethodMetadata.of(contextOf(MoreMethods.class), method, source);
+
+        assertNotSame(metadata, inherited);
+        assertEquals("SINGLE(java.lang.String)$.input", metadata.casesKey());
+        assertNotNull(metadata.projection());
+    }
+
+    private static ExtensionContext contextOf(Class<?> testClass) {
+        ExtensionContext context = mock(ExtensionContext.class);
+        when(context.getRequiredTestClass()).then(invocation -> testClass);
+        when(context.getTestClass()).then(invocation -> Optional.of(testClass));
+        return context;
+    }
+
+    @SuppressWarnings("unused")
+    static class Methods {
+
+        @JsonFileSource(resources = {"string_test_case.json", "people_input.json"})
+        void single(String value) {}
+
+        @JsonFileSource(resources = {"string_test_case.json"}, path = "$.input")
+        void projected(String value) {}
+    }
+
+    static class MoreMethods extends Methods {}
+}
@@ -0,0 +1,132 @@
+package io.github.glytching.junit.extension.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.annotation.JSONField;
+import io.github.glytching.junit.extension.json.annotation.ParameterBinding;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The slices handed to a {@link FixtureDeserializer} are located from the offset of the fastjson2
+ * reader; these cases fail if fastjson2 ever moves that offset.
+ */
+public class ParameterBinderTest {
+
+    @Test
+    void should_hand_over_values_without_the_whitespace_around_them() {
+        List<String> read = new ArrayList<>();
+
+        binder("byName", ParameterBinding.BY_NAME)
+                .read(
+                        bytes("{ \"map\" :\t{\"a\": 1}  ,\n  \"list\":  [1, 2] \r\n}"),
+                        new SlicingDeserializer(read));
+
+        assertEquals(Arrays.asList("{\"a\": 1}", "[1, 2]"), read);
+    }
+
+    @Test
+    void should_hand_over_the_last_member_up_to_its_end() {
+        List<String> read = new ArrayList<>();
+
+        binder("byName", ParameterBinding.BY_NAME)
+                .read(
+                        bytes("{\"other\": 0, \"list\": [], \"map\": {}}"),
+                        new SlicingDeserializer(read));
+
+        assertEquals(Arrays.asList("[]", "{}"), read);
+    }
+
+    @Test
+    void should_hand_over_scalars_by_position() {
+        List<String> read = new ArrayList<>();
+
+        Object[] values =
+                binder("byPosition", ParameterBinding.BY_POSITION)
+                        .read(bytes("[ -12.5e3 ,true,null ]"), new SlicingDeserializer(read));
+
+        assertEquals(Arrays.asList("-12.5e3", "true", "null"), read);
+        assertEquals(-12500.0, values[0]);
+        assertEquals(true, values[1]);
+    }
+
+    @Test
+    void should_hand_over_multibyte_strings_whole() {
+        List<String> read = new ArrayList<>();
+        String text = "\"größe \\\"数据\\\" ]}, 😀\"";
+
+        Object[] values =
+                binder("byName", ParameterBinding.BY_NAME)
+                        .read(
+                                bytes("{\"map\": {\"k\": " + text + "}, \"list\": [" + text + "]}"),
+                                new SlicingDeserializer(read));
+
+        assertEquals(Arrays.asList("{\"k\": " + text + "}", "[" + text + "]"), read);
+        assertEquals("größe \"数据\" ]}, 😀", ((Map<?, ?>) values[0]).get("k"));
+    }
+
+    @Test
+    void should_hand_over_the_value_selected_by_a_path() {
+        List<String> read = new ArrayList<>();
+
+        binder("byName", ParameterBinding.BY_NAME)
+                .read(
+                        bytes("{\"data\": [0, {\"map\": {\"ü\": 1} }]}"),
+                        MemberPath.of("$.data[1]"),
+                        new SlicingDeserializer(read));
+
+        assertEquals(Arrays.asList("{\"ü\": 1}"), read);
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(UTF_8);
+    }
+
+    private static ParameterBinder binder(String methodName, ParameterBinding binding) {
+        for (Method method : Methods.class.getDeclaredMethods()) {
+            if (method.getName().equals(methodName)) {
+                return ParameterBinder.of(method, binding, parameter -> false);
+            }
+        }
+        throw new IllegalArgumentException(methodName);
+    }
+
+    @SuppressWarnings("unused")
+    static class Methods {
+
+        void byName(
+                @JSONField(name = "map") Map<String, Object> map,
+                @JSONField(name = "list") List<Object> list) {}
+
+        void byPosition(Double number, Boolean flag, Object nothing) {}
+    }
+
+    /** Records each slice it is handed, as it is written. */
+    private static final class SlicingDeserializer implements FixtureDeserializer {
+
+        private final List<String> read;
+
+        SlicingDeserializer(List<String> read) {
+            this.read = read;
+        }
+
+        @Override
+        public String name() {
+            return "slicing";
+        }
+
+        @Override
+        public Object deserialize(byte[] json, Type type) {
+            String text = new String(json, UTF_8);
+            read.add(text);
+            return JSON.parseObject(text, type);
+        }
+    }
+}
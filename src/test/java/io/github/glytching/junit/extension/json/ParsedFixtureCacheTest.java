@@ -0,0 +1,111 @@
+package io.github.glytching.junit.extension.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONB;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+public class ParsedFixtureCacheTest {
+
+    private static final Type[] TYPES = {Person.class};
+
+    private final AtomicInteger parses = new AtomicInteger();
+
+    private final ParsedFixtureCache.Statistics statistics = new ParsedFixtureCache.Statistics();
+
+    @Test
+    void should_parse_a_resource_once_and_serve_copies_thereafter() {
+        ParsedFixtureCache cache = new ParsedFixtureCache(1024);
+        byte[] content = content("{\"name\": \"lele\", \"tags\": [\"a\"]}");
+
+        Person first = get(cache, "/person.json", content);
+        first.getTags().add("b");
+        Person second = get(cache, "/person.json", content);
+
+        assertEquals(1, parses.get());
+        assertNotSame(first, second);
+        assertEquals("lele", second.getName());
+        assertEquals(1, second.getTags().size());
+        assertEquals(1, statistics.hits());
+        assertEquals(1, statistics.misses());
+    }
+
+    @Test
+    void should_parse_again_when_the_content_changes() {
+        ParsedFixtureCache cache = new ParsedFixtureCache(1024);
+
+        byte[] original = content("{\"name\": \"a\"}");
+        byte[] edited = content("{\"name\": \"b\"}");
+
+        get(cache, "/person.json", original);
+        Person person = get(cache, "/person.json", edited);
+
+        assertEquals(2, parses.get());
+        assertEquals("b", person.getName());
+    }
+
+    @Test
+    void should_evict_the_least_recently_used_entry_when_full() {
+        byte[] content = content("{\"name\": \"lele\"}");
+        int snapshotSize = JSONB.toBytes(parse(content)[0]).length;
+        ParsedFixtureCache cache = new ParsedFixtureCache(2L * snapshotSize);
+        parses.set(0);
+
+        get(cache, "/a.json", content);
+        get(cache, "/b.json", content);
+        get(cache, "/a.json", content);
+        get(cache, "/c.json", content);
+        get(cache, "/a.json", content);
+        get(cache, "/b.json", content);
+
+        assertEquals(4, parses.get());
+    }
+
+    @Test
+    void should_publish_the_hits_and_misses_of_one_method_only() {
+        ParsedFixtureCache cache = new ParsedFixtureCache(1024);
+        byte[] content = content("{\"name\": \"lele\"}");
+        get(cache, "/person.json", content);
+        ParsedFixtureCache.Statistics other = new ParsedFixtureCache.Statistics();
+        cache.get(other, "/person.json", "Person", TYPES, content, this::parse);
+        cache.get(other, "/person.json", "Person", TYPES, content, this::parse);
+        ExtensionContext context = mock(ExtensionContext.class);
+
+        other.publish(context);
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put(ParsedFixtureCache.HITS_REPORT_KEY, "2");
+        expected.put(ParsedFixtureCache.MISSES_REPORT_KEY, "0");
+        verify(context).publishReportEntry(expected);
+    }
+
+    private static byte[] content(String json) {
+        return json.getBytes(UTF_8);
+    }
+
+    private Person get(ParsedFixtureCache cache, String resource, byte[] content) {
+        return (Person) cache.get(statistics, resource, "Person", TYPES, content, this::parse)[0];
+    }
+
+    private Object[] parse(byte[] content) {
+        parses.incrementAndGet();
+        return new Object[] {JSON.parseObject(content, Person.class)};
+    }
+
+    @Data
+    public static class Person {
+        private String name;
+        private List<String> tags;
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.glytching.junit.extension.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+public class PrefetchingIteratorTest {
+
+    @Test
+    void should_return_values_in_task_order_whatever_order_they_complete_in() {
+        CountDownLatch lastCompleted = new CountDownLatch(1);
+        List<Supplier<String>> tasks =
+                Arrays.asList(
+                        () -> {
+                            await(lastCompleted);
+                            return "first";
+                        },
+                        () -> "second",
+                        () -> {
+                            lastCompleted.countDown();
+                            return "third";
+                        });
+
+        List<String> values = new ArrayList<>();
+        try (PrefetchingIterator<String> iterator = new PrefetchingIterator<>(tasks.iterator(), 3)) {
+            iterator.forEachRemaining(values::add);
+        }
+
+        assertEquals(Arrays.asList("first", "second", "third"), values);
+    }
+
+    @Test
+    void should_run_no_more_than_the_window_of_tasks_ahead() {
+        AtomicInteger started = new AtomicInteger();
+        List<Supplier<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tasks.add(started::incrementAndGet);
+        }
+
+        try (PrefetchingIterator<Integer> iterator = new PrefetchingIterator<>(tasks.iterator(), 2)) {
+            iterator.next();
+
+            assertTrue(started.get() <= 3);
+        }
+    }
+
+    @Test
+    void should_rethrow_the_failure_of_a_task() {
+        List<Supplier<String>> tasks =
+                Arrays.asList(
+                        () -> "first",
+                        () -> {
+                            throw new IllegalStateException("Boom!");
+                        });
+
+        try (PrefetchingIterator<String> iterator = new PrefetchingIterator<>(tasks.iterator(), 2)) {
+            assertEquals("first", iterator.next());
+            IllegalStateException thrown = assertThrows(IllegalStateException.class, iterator::next);
+            assertEquals("Boom!", thrown.getMessage());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
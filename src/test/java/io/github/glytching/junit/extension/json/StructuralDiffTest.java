@@ -0,0 +1,150 @@
+package io.github.glytching.junit.extension.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.alibaba.fastjson2.JSON;
+import io.github.glytching.junit.extension.json.StructuralDiff.Difference;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+
+public class StructuralDiffTest {
+
+    @Test
+    void should_report_each_differing_path() {
+        Order expected = new Order("o-1", Arrays.asList(new Item("apple", 1), new Item("pear", 2)));
+        Order actual = new Order("o-1", Arrays.asList(new Item("apple", 3), new Item("plum", 2)));
+
+        assertEquals(
+                Arrays.asList(
+                        "$.items[0].quantity: expected 1 but was 3",
+                        "$.items[1].name: expected \"pear\" but was \"plum\""),
+                paths(StructuralDiff.diff(expected, actual, 10)));
+    }
+
+    @Test
+    void should_find_no_difference_between_equal_graphs() {
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("count", 1);
+        expected.put("price", new BigDecimal("0.10"));
+        expected.put("tags", new HashSet<>(Arrays.asList("a", "b")));
+        Map<String, Object> actual = new LinkedHashMap<>();
+        actual.put("count", 1L);
+        actual.put("price", 0.1d);
+        actual.put("tags", new TreeSet<>(Arrays.asList("b", "a")));
+
+        assertTrue(StructuralDiff.diff(expected, actual, 10).isEmpty());
+    }
+
+    @Test
+    void should_report_sizes_and_missing_entries() {
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("values", new int[] {1, 2, 3});
+        expected.put("gone", "x");
+        Map<String, Object> actual = new LinkedHashMap<>();
+        actual.put("values", new int[] {1, 2});
+        actual.put("added", "y");
+
+        assertEquals(
+                Arrays.asList(
+                        "$.gone: expected \"x\" but was no entry",
+                        "$.added: expected no entry but was \"y\"",
+                        "$.values: expected 3 elements but was 2 elements"),
+                paths(StructuralDiff.diff(expected, actual, 10)));
+    }
+
+    @Test
+    void should_stop_at_the_limit() {
+        List<Integer> expected = new ArrayList<>();
+        List<Integer> actual = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            expected.add(i);
+            actual.add(-i - 1);
+        }
+
+        List<Difference> differences = StructuralDiff.diff(expected, actual, 3);
+
+        assertEquals(3, differences.size());
+        assertEquals("$[2]", differences.get(2).getPath());
+    }
+
+    @Test
+    void should_walk_cyclic_graphs_once() {
+        Node expected = new Node("a", null);
+        expected.next = new Node("b", expected);
+        Node actual = new Node("a", null);
+        actual.next = new Node("c", actual);
+
+        assertEquals(
+                Collections.singletonList("$.next.name: expected \"b\" but was \"c\""),
+                paths(StructuralDiff.diff(expected, actual, 10)));
+    }
+
+    @Test
+    void should_compare_a_json_tree_with_an_object_by_field_name() {
+        Object expected = JSON.parse("[{\"name\": \"apple\", \"quantity\": 1}]");
+        List<Item> actual = Collections.singletonList(new Item("apple", 2));
+
+        assertEquals(
+                Collections.singletonList("$[0].quantity: expected 1 but was 2"),
+                paths(StructuralDiff.diff(expected, actual, 10)));
+    }
+
+    @Test
+    void should_fail_with_the_reported_differences_only() {
+        List<Integer> expected = Arrays.asList(1, 2, 3);
+        List<Integer> actual = Arrays.asList(4, 5, 6);
+
+        AssertionFailedError error =
+                assertThrows(
+                        AssertionFailedError.class,
+                        () -> StructuralDiff.assertEquals(expected, actual, 2));
+
+        assertEquals(
+                "Expected and actual differ at:\n"
+                        + "  $[0]: expected 1 but was 4\n"
+                        + "  $[1]: expected 2 but was 5\n"
+                        + "  ... and more, only the first 2 reported",
+                error.getMessage());
+    }
+
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    void should_assert_the_output_of_a_test_case() {
+        TestCase testCase =
+                new TestCase<>("apple", JSON.parseObject("{\"name\": \"APPLE\", \"quantity\": 1}"));
+
+        testCase.assertOutput(new Item("APPLE", 1));
+        assertThrows(AssertionFailedError.class, () -> testCase.assertOutput(new Item("APPLE", 2)));
+    }
+
+    private static List<String> paths(List<Difference> differences) {
+        return differences.stream().map(Difference::toString).collect(Collectors.toList());
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private String name;
+        private int quantity;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Order {
+        private String id;
+        private List<Item> items;
+    }
+
+    @AllArgsConstructor
+    public static class Node {
+        private String name;
+        private Node next;
+    }
+}
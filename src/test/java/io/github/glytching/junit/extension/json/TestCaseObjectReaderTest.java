@@ -0,0 +1,77 @@
+package io.github.glytching.junit.extension.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.TypeReference;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+
+public class TestCaseObjectReaderTest {
+
+    private static final String TEST_CASE =
+            "{\"input\": [{\"name\": \"apple\"}], "
+                    + "\"ignored\": {\"a\": [1]}, "
+                    + "\"output\": {\"apple\": 2}}";
+
+    private static final Type TEST_CASE_TYPE =
+            new TypeReference<TestCase<List<Item>, Map<String, Long>>>() {}.getType();
+
+    @Test
+    void should_read_input_and_output_as_their_type_arguments() {
+        TestCase<List<Item>, Map<String, Long>> testCase = read(TEST_CASE, TEST_CASE_TYPE);
+
+        assertEquals("apple", testCase.getInput().get(0).getName());
+        assertEquals(Long.valueOf(2), testCase.getOutput().get("apple"));
+    }
+
+    @Test
+    void should_leave_the_default_provider_as_it_is() {
+        read(TEST_CASE, TEST_CASE_TYPE);
+
+        TestCase<List<Object>, Object> testCase = JSON.parseObject(TEST_CASE, TEST_CASE_TYPE);
+
+        assertTrue(testCase.getInput().get(0) instanceof JSONObject);
+    }
+
+    @Test
+    void should_read_a_jsonb_test_case_as_its_type_arguments() {
+        TestCase<List<Item>, Map<String, Long>> original = read(TEST_CASE, TEST_CASE_TYPE);
+
+        TestCase<List<Item>, Map<String, Long>> copy;
+        try (JSONReader reader =
+                JSONReader.ofJSONB(JSONB.toBytes(original), TestCaseObjectReader.context())) {
+            copy = reader.read(TEST_CASE_TYPE);
+        }
+
+        assertEquals(original.getInput(), copy.getInput());
+        assertEquals(original.getOutput(), copy.getOutput());
+    }
+
+    @Test
+    void should_read_wildcards_as_their_upper_bound() {
+        Type wildcardType = new TypeReference<TestCase<? extends List<Item>, ?>>() {}.getType();
+
+        TestCase<? extends List<Item>, ?> testCase = read(TEST_CASE, wildcardType);
+
+        assertEquals("apple", testCase.getInput().get(0).getName());
+        assertTrue(testCase.getOutput() instanceof JSONObject);
+    }
+
+    private static <T> T read(String json, Type type) {
+        try (JSONReader reader = JSONReader.of(json, TestCaseObjectReader.context())) {
+            return reader.read(type);
+        }
+    }
+
+    @Data
+    public static class Item {
+        private String name;
+    }
+}
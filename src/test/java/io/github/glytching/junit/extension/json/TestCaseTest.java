@@ -0,0 +1,100 @@
+package io.github.glytching.junit.extension.json;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.TypeReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class TestCaseTest {
+
+    @Test
+    void should_convert_a_json_tree_once_per_requested_type() {
+        TestCase testCase =
+                new TestCase<>(
+                        JSON.parseObject("{\"name\": \"apple\", \"quantity\": 2}"),
+                        JSON.parseArray("[1, 2, 3]"));
+
+        Item item = (Item) testCase.getInput(Item.class);
+        Object longs = testCase.getOutput(new TypeReference<List<Long>>() {});
+        Object strings = testCase.getOutput(new TypeReference<List<String>>() {});
+
+        assertEquals("apple", item.getName());
+        assertEquals(2, item.getQuantity());
+        assertSame(item, testCase.getInput(Item.class));
+        assertSame(longs, testCase.getOutput(new TypeReference<List<Long>>() {}));
+        assertEquals(3L, ((List) longs).get(2));
+        assertEquals("3", ((List) strings).get(2));
+    }
+
+    @Test
+    void should_return_a_value_which_is_not_a_json_tree_as_is() {
+        TestCase<String, String> testCase = new TestCase<>("in", "out");
+
+        assertEquals("in", testCase.getInput(String.class));
+        assertEquals("out", testCase.getOutput(new TypeReference<String>() {}));
+    }
+
+    @Test
+    void should_convert_once_when_called_from_parallel_threads() throws Exception {
+        TestCase testCase = new TestCase<>(JSON.parseObject("{\"name\": \"apple\"}"), new JSONArray());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Object>> conversions = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                conversions.add(
+                        executor.submit(
+                                () -> {
+                                    start.await();
+                                    return testCase.getInput(Item.class);
+                                }));
+            }
+            start.countDown();
+            Object first = conversions.get(0).get();
+            for (Future<Object> conversion : conversions) {
+                assertSame(first, conversion.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void should_not_write_its_conversions_as_json() {
+        TestCase testCase = new TestCase<>(JSON.parseObject("{\"name\": \"apple\"}"), null);
+        testCase.getInput(Item.class);
+
+        JSONObject json = JSON.parseObject(JSON.toJSONString(testCase));
+
+        assertEquals(1, json.size());
+        assertEquals("apple", json.getJSONObject("input").getString("name"));
+    }
+
+    @Test
+    void should_hand_a_recorded_output_to_its_recorder_only() {
+        TestCase testCase = new TestCase<>("apple", null);
+        testCase.record("ignored");
+        List<Object> recorded = new ArrayList<>();
+
+        testCase.recordTo(recorded::add);
+        testCase.record("APPLE");
+
+        assertEquals(1, recorded.size());
+        assertEquals("APPLE", recorded.get(0));
+        assertNull(testCase.getOutput());
+    }
+
+    @Data
+    public static class Item {
+        private String name;
+        private int quantity;
+    }
+}
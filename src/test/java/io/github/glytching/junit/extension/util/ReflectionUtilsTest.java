@@ -2,6 +2,10 @@ package io.github.glytching.junit.extension.util;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -20,6 +24,16 @@ class ReflectionUtilsTest {
     whereIGo = new WhereIGo();
   }
 
+  @Test
+  void should_stop_collecting_instance_fields_at_the_jdk() {
+    List<String> names = new ArrayList<>();
+    for (Field field : ReflectionUtils.getInstanceFields(Names.class)) {
+      names.add(field.getName());
+    }
+
+    assertEquals(Collections.singletonList("first"), names);
+  }
+
   @Test
   void should_throw_exception_if_setting_static_field() {
     String value = "island";
@@ -72,6 +86,11 @@ class ReflectionUtilsTest {
 
   public static class WhereIGo extends WhoIAm {}
 
+  /** extends a JDK class, whose fields are not open to reflection from JDK 16 on */
+  public static class Names extends ArrayList<String> {
+    private String first;
+  }
+
   public enum TestClassEnum {
     WHO_AM_I;
   }